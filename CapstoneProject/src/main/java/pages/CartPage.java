@@ -7,31 +7,75 @@ import org.openqa.selenium.WebElement;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.support.ui.ExpectedCondition;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.DomBatch;
+import utils.DomWaits;
+import utils.LocatorChain;
+import utils.Waits;
 
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
-public class CartPage {
+public class CartPage implements FailureRegion {
     private final WebDriver driver;
-    private final WebDriverWait wait;
+    // per-call budget for the cart's own waits (see utils.Waits)
+    private static final Duration WAIT = Duration.ofSeconds(8);
 
     // Root / item selectors (tweak if your app uses different classes)
     private final By cartRoot = By.cssSelector("div.float-cart");
-    private final By cartItems = By.cssSelector("div.float-cart .shelf-item");
-    private final By itemNameInCart = By.cssSelector(".shelf-item__details > p, .shelf-item__title, .shelf-item__details");
-    private final By subtotalSel = By.cssSelector("p.sub-price__val, .sub-price__val, .cart-subtotal, .subtotal");
+    private static final String CART_ROW_CSS = "div.float-cart .shelf-item";
+    private static final String CART_TITLE_CSS = ".shelf-item__details > p, .shelf-item__title, .shelf-item__details";
+    private final By cartItems = By.cssSelector(CART_ROW_CSS);
+
+    // DomWaits predicates (root = div.float-cart); a cart row is matched the same way cartRows() does it
+    private static final String JS_FIND_ROW =
+        "Array.prototype.filter.call(root.querySelectorAll('.shelf-item'), function (r) {" +
+        "  var n = r.querySelector('.shelf-item__details > p, .shelf-item__title, .shelf-item__details');" +
+        "  return (n ? n.innerText : r.innerText).toLowerCase().indexOf(args[0].toLowerCase()) >= 0;" +
+        "})[0]";
+    // args: partial title, qty to exceed (-1 = qty not shown), subtotal text before the click
+    private static final String JS_QTY_OR_SUBTOTAL_CHANGED =
+        "(function () {" +
+        "  var row = " + JS_FIND_ROW + ";" +
+        "  var m = row && /Quantity[:\\s]*([0-9]+)/i.exec(row.innerText);" +
+        "  if (m && args[1] >= 0) return parseInt(m[1], 10) > args[1];" +
+        "  var sub = root.querySelector('p.sub-price__val, .sub-price__val, .cart-subtotal, .subtotal');" +
+        "  var now = sub ? sub.innerText.trim() : '';" +
+        "  return now !== '' && now !== args[2];" +
+        "})()";
+    // args: exact title (case-insensitive) that must no longer be in the cart
+    private static final String JS_ROW_GONE =
+        "!root || !Array.prototype.some.call(root.querySelectorAll('.shelf-item'), function (r) {" +
+        "  var n = r.querySelector('.shelf-item__details > p, .shelf-item__title, .shelf-item__details');" +
+        "  return !!n && n.innerText.trim().toLowerCase() === args[0].toLowerCase();" +
+        "})";
+    private static final Duration CLICK_BUDGET = Duration.ofSeconds(2);
+
+    // remove control inside a cart row; the catch-alls are the old "click a button / svg / small x" fallback,
+    // fixed at the end and never promoted (a row's -/+ quantity buttons are buttons too, so they are left out)
+    private static final LocatorChain REMOVE_CONTROL = LocatorChain.of("cart", "removeControl",
+            By.cssSelector(".shelf-item__del"),
+            By.cssSelector(".shelf-item_del"),
+            By.cssSelector("button.remove, .remove"),
+            By.cssSelector(".item-remove"))
+            .orElse(By.cssSelector("button:not(.change-product-button)"),
+                    By.cssSelector("svg"));
 
     public CartPage(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(8));
+    }
+
+    // cart failures are about the floating cart, not the shelf behind it
+    @Override
+    public By getFailureRegion() {
+        return cartRoot;
     }
  // place inside your CartPage class
     public boolean isCartOpen() {
         try {
             waitUntilCartVisible(); // existing helper in CartPage
-            List<WebElement> items = driver.findElements(cartItems);
+            List<WebElement> items = Waits.findAll(driver, cartItems);
             return items != null && !items.isEmpty();
         } catch (Exception e) {
             return false;
@@ -42,7 +86,7 @@ public class CartPage {
     // Wait until cart root is visible (floating cart open)
     public void waitUntilCartVisible() {
         try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(cartRoot));
+            Waits.until(driver, WAIT, "cart visible", ExpectedConditions.visibilityOfElementLocated(cartRoot));
         } catch (Exception e) {
             // bubble a debug message, caller may handle
             System.err.println("DEBUG: waitUntilCartVisible timed out: " + e.getMessage());
@@ -53,105 +97,61 @@ public class CartPage {
     // Wait until at least one cart item exists (safe no-op if already present)
     public void waitForCartItems() {
         try {
-            wait.until(ExpectedConditions.numberOfElementsToBeMoreThan(cartItems, 0));
+            Waits.until(driver, WAIT, "cart has items", ExpectedConditions.numberOfElementsToBeMoreThan(cartItems, 0));
         } catch (Exception e) {
             System.err.println("DEBUG: waitForCartItems timed out: " + e.getMessage());
             // intentionally not rethrowing here; callers will check results
         }
     }
 
-    // Return visible item names in cart
+    /**
+     * Whole cart (titles, quantities, line totals, subtotal) in one round trip.
+     * Waits up to the cart budget for the cart to open; returns whatever is there if it never does.
+     */
+    public CartSnapshot snapshot() {
+        CartSnapshot snap = Waits.tryUntil(driver, WAIT, "cart visible", openCart());
+        return snap != null ? snap : CartSnapshot.capture(driver);
+    }
+
+    // condition: a snapshot of the cart once it is open
+    private Function<WebDriver, CartSnapshot> openCart() {
+        return d -> {
+            CartSnapshot s = CartSnapshot.capture(d);
+            return s.isOpen() ? s : null;
+        };
+    }
+
+    // Return visible item names in cart; empty if the cart never shows
     public List<String> getCartItemNames() {
-        List<String> names = new ArrayList<>();
-        waitUntilCartVisible();
-        List<WebElement> items = driver.findElements(cartItems);
-        for (WebElement item : items) {
-            try {
-                WebElement nameEl = item.findElement(itemNameInCart);
-                names.add(nameEl.getText().trim());
-            } catch (Exception e) {
-                names.add(item.getText().trim());
-            }
-        }
-        return names;
+        CartSnapshot snap = Waits.tryUntil(driver, WAIT, "cart visible", openCart());
+        return snap != null ? snap.getItemNames() : new ArrayList<>();
     }
 
     public boolean isItemPresent(String partialName) {
-        try {
-            waitForCartItems();
-        } catch (Exception ignored) {}
-        return getCartItemNames().stream()
-                .anyMatch(n -> n.toLowerCase().contains(partialName.toLowerCase()));
+        CartSnapshot snap = Waits.tryUntil(driver, WAIT, "cart has items", d -> {
+            CartSnapshot s = CartSnapshot.capture(d);
+            return s.isOpen() && s.getItemCount() > 0 ? s : null;
+        });
+        if (snap == null) snap = CartSnapshot.capture(driver);
+        return snap.contains(partialName);
     }
 
-    /**
-     * Attempt to parse quantity shown inside the matching cart item.
-     * Returns -1 if no numeric quantity can be found.
-     */
     /**
      * Attempt to parse quantity shown inside the matching cart item.
      * Returns -1 if no numeric quantity can be found.
      */
     public int getQuantityForItem(String partialName) {
-        try {
-            waitUntilCartVisible();
-        } catch (Exception ignored) {}
-        List<WebElement> items = driver.findElements(cartItems);
-        for (WebElement it : items) {
-            String title = "";
-            try { title = it.findElement(itemNameInCart).getText().trim(); } catch (Exception e) { title = it.getText(); }
-            if (!title.toLowerCase().contains(partialName.toLowerCase())) continue;
-
-            // 1) look specifically for "Quantity" label and digits after it
-            try {
-                String whole = it.getText();
-                java.util.regex.Matcher m = java.util.regex.Pattern.compile("Quantity[:\\s]*([0-9]+)", java.util.regex.Pattern.CASE_INSENSITIVE).matcher(whole);
-                if (m.find()) {
-                    int val = Integer.parseInt(m.group(1));
-                    System.out.println("DEBUG: Parsed qty for '" + title + "' via labeled Quantity regex = " + val);
-                    return val;
-                }
-            } catch (Exception ignored) {}
-
-            // 2) try common qty selectors inside this item
-            By[] qSelectors = new By[] {
-                By.cssSelector(".shelf-item__quantity"),
-                By.cssSelector(".quantity"),
-                By.cssSelector(".qty"),
-                By.cssSelector(".shelf-item__details small")
-            };
-            for (By qSel : qSelectors) {
-                try {
-                    List<WebElement> qEls = it.findElements(qSel);
-                    if (!qEls.isEmpty()) {
-                        for (WebElement q : qEls) {
-                            String digits = q.getText().replaceAll("[^0-9]", "");
-                            if (!digits.isEmpty()) {
-                                int val = Integer.parseInt(digits);
-                                System.out.println("DEBUG: Parsed qty for '" + title + "' using " + qSel + " = " + val);
-                                return val;
-                            }
-                        }
-                    }
-                } catch (Exception ignored) {}
-            }
-
-            // 3) fallback: parse any number in the item text (least preferred)
-            try {
-                String all = it.getText();
-                java.util.regex.Matcher m2 = java.util.regex.Pattern.compile("\\b([0-9]+)\\b").matcher(all);
-                if (m2.find()) {
-                    int val = Integer.parseInt(m2.group(1));
-                    System.out.println("DEBUG: Parsed qty for '" + title + "' via loose number = " + val);
-                    return val;
-                }
-            } catch (Exception ignored) {}
-
-            System.err.println("DEBUG: Could not parse quantity for item: " + title);
+        CartSnapshot.Item item = snapshot().find(partialName);
+        if (item == null) {
+            System.err.println("DEBUG: Item with name containing '" + partialName + "' not found in cart.");
             return -1;
         }
-        System.err.println("DEBUG: Item with name containing '" + partialName + "' not found in cart.");
-        return -1;
+        if (item.getQuantity() < 0) {
+            System.err.println("DEBUG: Could not parse quantity for item: " + item.getTitle());
+        } else {
+            System.out.println("DEBUG: Parsed qty for '" + item.getTitle() + "' from cart snapshot = " + item.getQuantity());
+        }
+        return item.getQuantity();
     }
 
 
@@ -164,14 +164,15 @@ public class CartPage {
             waitUntilCartVisible();
         } catch (Exception ignored) {}
 
-        List<WebElement> items = driver.findElements(cartItems);
-        for (WebElement it : items) {
-            String title = "";
-            try { title = it.findElement(itemNameInCart).getText().trim(); } catch (Exception e) { title = it.getText(); }
+        List<String> titles = new ArrayList<>();
+        List<WebElement> items = cartRows(titles);
+        for (int idx = 0; idx < items.size(); idx++) {
+            WebElement it = items.get(idx);
+            String title = titles.get(idx);
             if (!title.toLowerCase().contains(partialName.toLowerCase())) continue;
 
             // find candidate plus buttons inside this item
-            List<WebElement> changeBtns = it.findElements(By.cssSelector("button.change-product-button, .change-product-button, button"));
+            List<WebElement> changeBtns = Waits.findAll(driver, it, By.cssSelector("button.change-product-button, .change-product-button, button"));
             WebElement plus = null;
             for (WebElement b : changeBtns) {
                 try {
@@ -186,31 +187,30 @@ public class CartPage {
                 return false;
             }
 
-            int beforeQty = getQuantityForItem(partialName);
-            String beforeSub = getSubtotal();
+            CartSnapshot before = snapshot();
+            int beforeQty = before.getQuantity(partialName);
+            String beforeSub = before.getSubtotal();
 
+            boolean changed = false;
             for (int i = 0; i < times; i++) {
+                String subBeforeClick = (beforeQty == -1 && i > 0) ? getSubtotal() : beforeSub;
                 try {
-                    wait.until(ExpectedConditions.elementToBeClickable(plus)).click();
+                    Waits.until(driver, WAIT, "plus button clickable", ExpectedConditions.elementToBeClickable(plus)).click();
                 } catch (Exception e) {
                     // fallback to JS click
                     ((JavascriptExecutor) driver).executeScript("arguments[0].click();", plus);
                 }
-                try { Thread.sleep(200); } catch (InterruptedException ignored) {}
+                // let this click land before the next one: returns on the DOM change, not after a fixed pause
+                changed = DomWaits.until(driver, "div.float-cart", CLICK_BUDGET, "cart updated after +",
+                        JS_QTY_OR_SUBTOTAL_CHANGED, partialName, beforeQty == -1 ? -1 : beforeQty + i, subBeforeClick);
             }
 
             // Wait for either qty increase or subtotal change (5s)
-            try {
-                new WebDriverWait(driver, Duration.ofSeconds(5)).until(d -> {
-                    int nowQty = getQuantityForItem(partialName);
-                    String nowSub = getSubtotal();
-                    if (beforeQty == -1 && nowQty == -1) {
-                        // if qty not shown, accept subtotal change as indicator
-                        return nowSub != null && !nowSub.equals(beforeSub) && !nowSub.isEmpty();
-                    }
-                    return nowQty > beforeQty;
-                });
-            } catch (Exception e) {
+            if (!changed) {
+                changed = DomWaits.until(driver, "div.float-cart", Duration.ofSeconds(5), "cart qty or subtotal changed",
+                        JS_QTY_OR_SUBTOTAL_CHANGED, partialName, beforeQty, beforeSub);
+            }
+            if (!changed) {
                 System.err.println("DEBUG: quantity/subtotal did not change within timeout for: " + partialName);
                 // still return true because clicks were performed
                 return true;
@@ -227,22 +227,7 @@ public class CartPage {
      * Return subtotal string (raw). May need normalization for numeric assertions.
      */
     public String getSubtotal() {
-        try {
-            waitUntilCartVisible();
-        } catch (Exception ignored) {}
-        try {
-            List<WebElement> els = driver.findElements(subtotalSel);
-            if (!els.isEmpty()) {
-                return els.get(0).getText().trim();
-            } else {
-                // fallback: try any element containing subtotal keywords
-                List<WebElement> cand = driver.findElements(By.xpath("//*[contains(text(),'SUBTOTAL') or contains(text(),'Subtotal') or contains(text(),'total')]"));
-                if (!cand.isEmpty()) return cand.get(0).getText().trim();
-            }
-        } catch (Exception e) {
-            System.err.println("DEBUG: getSubtotal failed: " + e.getMessage());
-        }
-        return "";
+        return snapshot().getSubtotal();
     }
 
     /**
@@ -255,90 +240,67 @@ public class CartPage {
         try {
             waitUntilCartVisible();
         } catch (Exception ignored) {}
-        List<WebElement> items = driver.findElements(cartItems);
+        List<String> titles = new ArrayList<>();
+        List<WebElement> items = cartRows(titles);
         System.out.println("DEBUG: removeItemByName scanning " + items.size() + " items for: " + partialName);
-        for (WebElement it : items) {
-            String title = "";
-            try { title = it.findElement(itemNameInCart).getText().trim(); } catch (Exception e) { title = it.getText(); }
+        for (int idx = 0; idx < items.size(); idx++) {
+            WebElement it = items.get(idx);
+            String title = titles.get(idx);
             if (!title.toLowerCase().contains(partialName.toLowerCase())) continue;
 
             // Keep an effectively-final copy for use inside lambdas
             final String titleFinal = title;
 
-            // find remove controls scoped to this item
-            List<By> removeLocs = List.of(
-                    By.cssSelector(".shelf-item__del"),
-                    By.cssSelector(".shelf-item_del"),
-                    By.cssSelector("button.remove, .remove"),
-                    By.cssSelector(".item-remove"),
-                    By.cssSelector("button")
-            );
-
-            WebElement toClick = null;
-            for (By loc : removeLocs) {
-                List<WebElement> found = it.findElements(loc);
-                if (!found.isEmpty()) {
-                    for (WebElement e : found) {
-                        try {
-                            if (e.isDisplayed() && e.isEnabled()) {
-                                toClick = e;
-                                break;
-                            }
-                        } catch (Exception ignored) {}
-                    }
-                }
-                if (toClick != null) break;
-            }
+            // find remove controls scoped to this item (best-known locator first); it only earns its rank once the row is gone
+            LocatorChain.Match control = REMOVE_CONTROL.attempt(driver, it, e -> e.isDisplayed() && e.isEnabled());
 
-            if (toClick == null) {
-                // fallback: click an 'svg' or small x inside item
-                try {
-                    WebElement svg = it.findElement(By.cssSelector("svg"));
-                    toClick = svg;
-                } catch (Exception ignored) {}
-            }
-
-            if (toClick == null) {
+            if (control == null) {
                 System.err.println("DEBUG: removeItemByName - no remove control found inside item: " + titleFinal);
                 return false;
             }
+            WebElement toClick = control.getElement();
 
             try {
-                wait.until(ExpectedConditions.elementToBeClickable(toClick)).click();
+                Waits.until(driver, WAIT, "remove control clickable", ExpectedConditions.elementToBeClickable(toClick)).click();
             } catch (Exception e) {
                 // JS fallback
                 ((JavascriptExecutor) driver).executeScript("arguments[0].click();", toClick);
             }
 
             // wait until that specific item is no longer present
-            try {
-                boolean gone = new WebDriverWait(driver, java.time.Duration.ofSeconds(6)).until(d -> {
-                    List<WebElement> now = d.findElements(cartItems);
-                    for (WebElement e : now) {
-                        try {
-                            String t = e.findElement(itemNameInCart).getText().trim();
-                            if (t.equalsIgnoreCase(titleFinal)) return false; // still present
-                        } catch (Exception ignore) {}
-                    }
-                    return true; // not found
-                });
-                System.out.println("DEBUG: removeItemByName - item '" + titleFinal + "' disappeared = " + gone);
-                return gone;
-            } catch (Exception ex) {
-                System.err.println("DEBUG: removeItemByName - wait for disappearance timed out: " + ex.getMessage());
+            boolean gone = DomWaits.until(driver, "div.float-cart", Duration.ofSeconds(6), "cart item removed", JS_ROW_GONE, titleFinal);
+            if (!gone) {
+                control.failed();
+                System.err.println("DEBUG: removeItemByName - wait for disappearance timed out for: " + titleFinal);
                 return false;
             }
+            control.succeeded();
+            System.out.println("DEBUG: removeItemByName - item '" + titleFinal + "' disappeared = " + gone);
+            return gone;
         }
         System.err.println("DEBUG: removeItemByName - no matching item found for: " + partialName);
         return false;
     }
 
 
+    // cart rows and their titles (added to titlesOut) in one round trip; rows without a title element use their own text
+    private List<WebElement> cartRows(List<String> titlesOut) {
+        DomBatch batch = new DomBatch(driver);
+        DomBatch.Result<List<WebElement>> rows = batch.elements(CART_ROW_CSS);
+        DomBatch.Result<List<String>> titles = batch.childTexts(CART_ROW_CSS, CART_TITLE_CSS);
+        batch.run();
+        for (int i = 0; i < rows.get().size(); i++) {
+            String t = titles.get().get(i);
+            titlesOut.add(t != null ? t : rows.get().get(i).getText().trim());
+        }
+        return rows.get();
+    }
+
     // debug raw cart text
     public String getCartRawText() {
         try {
             waitForCartItems();
-            List<WebElement> items = driver.findElements(cartItems);
+            List<WebElement> items = Waits.findAll(driver, cartItems);
             StringBuilder sb = new StringBuilder();
             for (WebElement it : items) {
                 sb.append("---- ITEM ----\n").append(it.getText()).append("\n");
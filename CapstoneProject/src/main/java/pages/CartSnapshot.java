@@ -0,0 +1,218 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import utils.Waits;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable view of the floating cart: every item's title, quantity and unit price plus the subtotal,
+ * read with a single executeScript call instead of findElements/getText per item.
+ * Quantities are parsed the same way CartPage always did (labelled "Quantity", then qty elements, then any number).
+ */
+public final class CartSnapshot {
+    private static final Pattern QTY_LABEL = Pattern.compile("Quantity[:\\s]*([0-9]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern LOOSE_NUMBER = Pattern.compile("\\b([0-9]+)\\b");
+    private static final Pattern PRICE = Pattern.compile("([0-9][0-9,]*(?:\\.[0-9]+)?)");
+    private static final Pattern NON_DIGITS = Pattern.compile("[^0-9]");
+
+    private static final String ROOT_CSS = "div.float-cart";
+    private static final String ROW_CSS = ".shelf-item";
+    private static final String TITLE_CSS = ".shelf-item__details > p, .shelf-item__title, .shelf-item__details";
+    private static final String QTY_CSS = ".shelf-item__quantity, .quantity, .qty, .shelf-item__details small";
+    private static final String PRICE_CSS = ".shelf-item__price > p, .shelf-item__price";
+    private static final String SUBTOTAL_CSS = "p.sub-price__val, .sub-price__val, .cart-subtotal, .subtotal";
+    private static final String SUBTOTAL_XPATH = "//*[contains(text(),'SUBTOTAL') or contains(text(),'Subtotal') or contains(text(),'total')]";
+
+    private static final String SNAPSHOT_JS =
+        "var root = document.querySelector(arguments[0]);" +
+        "var open = !!root && getComputedStyle(root).visibility !== 'hidden'" +
+        "  && !!(root.offsetWidth || root.offsetHeight || root.getClientRects().length);" +
+        "var rows = root ? root.querySelectorAll(arguments[1]) : [];" +
+        "var items = [];" +
+        "for (var i = 0; i < rows.length; i++) {" +
+        "  var r = rows[i], n = r.querySelector(arguments[2]), p = r.querySelector(arguments[4]), q = [];" +
+        "  var qs = r.querySelectorAll(arguments[3]);" +
+        "  for (var j = 0; j < qs.length; j++) q.push(qs[j].innerText);" +
+        "  items.push({title: (n ? n.innerText : r.innerText).trim(), text: r.innerText, qty: q, price: p ? p.innerText.trim() : ''});" +
+        "}" +
+        "var sub = document.querySelector(arguments[5]);" +
+        "if (!sub) sub = document.evaluate(arguments[6], document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;" +
+        "return {open: open, items: items, subtotal: sub ? sub.innerText.trim() : ''};";
+
+    /**
+     * One cart row. The row's price is the product's unit price (as on bstackdemo); the line total is derived
+     * from it. quantity is -1 and unitPrice NaN when the UI does not show them.
+     */
+    public static final class Item {
+        private final String title;
+        private final int quantity;
+        private final double unitPrice;
+        private final String priceText;
+
+        Item(String title, int quantity, double unitPrice, String priceText) {
+            this.title = title;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.priceText = priceText;
+        }
+
+        public String getTitle() { return title; }
+        public int getQuantity() { return quantity; }
+        public double getUnitPrice() { return unitPrice; }
+        /** unitPrice x quantity; NaN when either is not shown. */
+        public double getLineTotal() { return quantity > 0 ? unitPrice * quantity : Double.NaN; }
+        public String getPriceText() { return priceText; }
+
+        boolean matches(String partialName) {
+            return title.toLowerCase().contains(partialName.toLowerCase());
+        }
+
+        @Override
+        public String toString() {
+            return title + " x" + quantity + " @ " + priceText;
+        }
+    }
+
+    private final boolean open;
+    private final List<Item> items;
+    private final String subtotal;
+
+    private CartSnapshot(boolean open, List<Item> items, String subtotal) {
+        this.open = open;
+        this.items = Collections.unmodifiableList(items);
+        this.subtotal = subtotal == null ? "" : subtotal;
+    }
+
+    /** Read the cart in one round trip; falls back to element lookups if the script cannot run. */
+    public static CartSnapshot capture(WebDriver driver) {
+        try {
+            Object raw = ((JavascriptExecutor) driver).executeScript(SNAPSHOT_JS,
+                    ROOT_CSS, ROW_CSS, TITLE_CSS, QTY_CSS, PRICE_CSS, SUBTOTAL_CSS, SUBTOTAL_XPATH);
+            if (raw instanceof Map) return fromScript((Map<?, ?>) raw);
+        } catch (Exception e) {
+            System.err.println("DEBUG: CartSnapshot script failed, reading elements instead: " + e.getMessage());
+        }
+        return fromElements(driver);
+    }
+
+    private static CartSnapshot fromScript(Map<?, ?> raw) {
+        List<Item> items = new ArrayList<>();
+        Object rows = raw.get("items");
+        if (rows instanceof List) {
+            for (Object o : (List<?>) rows) {
+                Map<?, ?> row = (Map<?, ?>) o;
+                List<String> qtyTexts = new ArrayList<>();
+                Object q = row.get("qty");
+                if (q instanceof List) for (Object t : (List<?>) q) qtyTexts.add(String.valueOf(t));
+                items.add(item(str(row.get("title")), str(row.get("text")), qtyTexts, str(row.get("price"))));
+            }
+        }
+        return new CartSnapshot(Boolean.TRUE.equals(raw.get("open")), items, str(raw.get("subtotal")));
+    }
+
+    private static CartSnapshot fromElements(WebDriver driver) {
+        List<WebElement> roots = Waits.findAll(driver, By.cssSelector(ROOT_CSS));
+        boolean open = false;
+        List<Item> items = new ArrayList<>();
+        try {
+            open = !roots.isEmpty() && roots.get(0).isDisplayed();
+            if (!roots.isEmpty()) {
+                for (WebElement row : Waits.findAll(driver, roots.get(0), By.cssSelector(ROW_CSS))) {
+                    String text = row.getText();
+                    List<WebElement> name = Waits.findAll(driver, row, By.cssSelector(TITLE_CSS));
+                    List<String> qtyTexts = new ArrayList<>();
+                    for (WebElement q : Waits.findAll(driver, row, By.cssSelector(QTY_CSS))) qtyTexts.add(q.getText());
+                    List<WebElement> price = Waits.findAll(driver, row, By.cssSelector(PRICE_CSS));
+                    items.add(item(name.isEmpty() ? text.trim() : name.get(0).getText().trim(), text, qtyTexts,
+                            price.isEmpty() ? "" : price.get(0).getText().trim()));
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("DEBUG: CartSnapshot element fallback failed: " + e.getMessage());
+        }
+        List<WebElement> sub = Waits.findAll(driver, By.cssSelector(SUBTOTAL_CSS));
+        if (sub.isEmpty()) sub = Waits.findAll(driver, By.xpath(SUBTOTAL_XPATH));
+        String subtotal = "";
+        try {
+            if (!sub.isEmpty()) subtotal = sub.get(0).getText().trim();
+        } catch (Exception ignored) {}
+        return new CartSnapshot(open, items, subtotal);
+    }
+
+    private static Item item(String title, String text, List<String> qtyTexts, String priceText) {
+        return new Item(title, parseQuantity(text, qtyTexts), parsePrice(priceText), priceText);
+    }
+
+    // 1) labelled "Quantity: n", 2) digits of the first qty element that has any, 3) any number in the row (least preferred)
+    private static int parseQuantity(String text, List<String> qtyTexts) {
+        Matcher m = QTY_LABEL.matcher(text);
+        if (m.find()) return Integer.parseInt(m.group(1));
+        for (String q : qtyTexts) {
+            String digits = NON_DIGITS.matcher(q).replaceAll("");
+            if (!digits.isEmpty()) return Integer.parseInt(digits);
+        }
+        Matcher loose = LOOSE_NUMBER.matcher(text);
+        if (loose.find()) return Integer.parseInt(loose.group(1));
+        return -1;
+    }
+
+    private static double parsePrice(String priceText) {
+        Matcher m = PRICE.matcher(priceText);
+        return m.find() ? Double.parseDouble(m.group(1).replace(",", "")) : Double.NaN;
+    }
+
+    private static String str(Object o) {
+        return o == null ? "" : o.toString();
+    }
+
+    /** True when the floating cart is rendered and visible. */
+    public boolean isOpen() { return open; }
+
+    public List<Item> getItems() { return items; }
+
+    public int getItemCount() { return items.size(); }
+
+    public List<String> getItemNames() {
+        List<String> names = new ArrayList<>();
+        for (Item it : items) names.add(it.getTitle());
+        return names;
+    }
+
+    /** First item whose title contains partialName (case-insensitive), or null. */
+    public Item find(String partialName) {
+        for (Item it : items) {
+            if (it.matches(partialName)) return it;
+        }
+        return null;
+    }
+
+    public boolean contains(String partialName) {
+        return find(partialName) != null;
+    }
+
+    /** Quantity of the first matching item; -1 if it is missing or shows no quantity. */
+    public int getQuantity(String partialName) {
+        Item it = find(partialName);
+        return it == null ? -1 : it.getQuantity();
+    }
+
+    /** Raw subtotal text as shown, e.g. "$ 1398.00"; empty if none is rendered. */
+    public String getSubtotal() { return subtotal; }
+
+    /** Numeric subtotal, NaN if it cannot be parsed. */
+    public double getSubtotalValue() { return parsePrice(subtotal); }
+
+    @Override
+    public String toString() {
+        return "CartSnapshot{open=" + open + ", items=" + items + ", subtotal='" + subtotal + "'}";
+    }
+}
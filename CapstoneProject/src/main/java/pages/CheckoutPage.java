@@ -1,26 +1,75 @@
 package pages;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.ConfigReader;
+import utils.Waits;
+
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Lightweight checkout page helpers.
  */
-public class CheckoutPage {
+public class CheckoutPage implements FailureRegion {
     private final WebDriver driver;
-    private final WebDriverWait wait;
-    private final By checkoutFormRoot = By.cssSelector("div.checkout-form, div.checkout-view-content, #checkout-app");
+    // per-call budget for the form's waits (see utils.Waits)
+    private static final Duration WAIT = Duration.ofSeconds(8);
+    private static final String CHECKOUT_FORM_CSS = "div.checkout-form, div.checkout-view-content, #checkout-app";
+    private final By checkoutFormRoot = By.cssSelector(CHECKOUT_FORM_CSS);
     private final By submitButton = By.cssSelector("button#checkout-shipping-continue, button[type=submit].button--primary, button[type=submit]");
 
     // ✅ Direct locator for Address
     private final By addressInput = By.id("addressLine1Input");
 
+    // Scripted fill: resolve every field (by id, else label[for], else first input/textarea after the label,
+    // like inputForLabel), set it through the native value setter so React sees the change, fire
+    // input/change/blur, and read all values back in the same call.
+    // args: root css, [{label, id, value}]
+    private static final String FILL_JS =
+        "var root = document.querySelector(arguments[0]) || document, fields = arguments[1], out = [];" +
+        "function norm(s) { return (s || '').replace(/\\s+/g, ' ').trim(); }" +
+        "var controls = Array.prototype.slice.call(root.querySelectorAll('input, textarea'));" +
+        "var labels = Array.prototype.slice.call(root.querySelectorAll('label'));" +
+        "function byLabel(text) {" +
+        "  for (var i = 0; i < labels.length; i++) {" +
+        "    var l = labels[i];" +
+        "    if (norm(l.textContent).indexOf(text) < 0) continue;" +
+        "    if (l.htmlFor && document.getElementById(l.htmlFor)) return document.getElementById(l.htmlFor);" +
+        "    for (var j = 0; j < controls.length; j++) {" +
+        "      if (l.compareDocumentPosition(controls[j]) & Node.DOCUMENT_POSITION_FOLLOWING) return controls[j];" +
+        "    }" +
+        "  }" +
+        "  return null;" +
+        "}" +
+        "for (var k = 0; k < fields.length; k++) {" +
+        "  var f = fields[k], el = (f.id && document.getElementById(f.id)) || byLabel(f.label);" +
+        "  if (!el) { out.push({label: f.label, found: false, value: null}); continue; }" +
+        "  var proto = el.tagName === 'TEXTAREA' ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;" +
+        "  el.focus();" +
+        "  Object.getOwnPropertyDescriptor(proto, 'value').set.call(el, f.value);" +
+        "  el.dispatchEvent(new Event('input', {bubbles: true}));" +
+        "  el.dispatchEvent(new Event('change', {bubbles: true}));" +
+        "  el.dispatchEvent(new Event('blur'));" +
+        "  out.push({label: f.label, found: true, value: el.value});" +
+        "}" +
+        "return out;";
+
     public CheckoutPage(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(8));
+    }
+
+    // failures here are about the shipping form
+    @Override
+    public By getFailureRegion() {
+        return checkoutFormRoot;
     }
 
     // Tolerant input locator for other fields
@@ -34,43 +83,53 @@ public class CheckoutPage {
 
     // Wait until checkout form is visible
     public void waitForForm() {
-        wait.until(ExpectedConditions.visibilityOfElementLocated(checkoutFormRoot));
+        Waits.until(driver, WAIT, "checkout form visible", ExpectedConditions.visibilityOfElementLocated(checkoutFormRoot));
+    }
+
+    // clear and type into a field once it is visible
+    private void type(By locator, String field, String value) {
+        WebElement input = Waits.until(driver, WAIT, field + " field visible", ExpectedConditions.visibilityOfElementLocated(locator));
+        input.clear();
+        input.sendKeys(value);
     }
 
     public void fillFirstName(String firstName) {
         waitForForm();
-        By locator = inputForLabel("First Name");
-        wait.until(ExpectedConditions.visibilityOfElementLocated(locator)).clear();
-        driver.findElement(locator).sendKeys(firstName);
+        type(inputForLabel("First Name"), "First Name", firstName);
     }
 
     public void fillLastName(String lastName) {
-        By locator = inputForLabel("Last Name");
-        wait.until(ExpectedConditions.visibilityOfElementLocated(locator)).clear();
-        driver.findElement(locator).sendKeys(lastName);
+        type(inputForLabel("Last Name"), "Last Name", lastName);
     }
 
     public void fillAddress(String addr) {
         waitForForm();
-        wait.until(ExpectedConditions.visibilityOfElementLocated(addressInput)).clear();
-        driver.findElement(addressInput).sendKeys(addr);
+        type(addressInput, "Address", addr);
     }
 
     public void fillProvince(String prov) {
-        By locator = inputForLabel("State/Province");
-        wait.until(ExpectedConditions.visibilityOfElementLocated(locator)).clear();
-        driver.findElement(locator).sendKeys(prov);
+        type(inputForLabel("State/Province"), "State/Province", prov);
     }
 
     public void fillPostalCode(String pc) {
-        By locator = inputForLabel("Postal Code");
-        wait.until(ExpectedConditions.visibilityOfElementLocated(locator)).clear();
-        driver.findElement(locator).sendKeys(pc);
+        type(inputForLabel("Postal Code"), "Postal Code", pc);
     }
 
-    /** Fill all shipping fields in one call */
+    /**
+     * Fill all shipping fields in one call. With checkout.fill=script (default) every field is set and
+     * verified in one script round trip; if that cannot find or set a field, the fields are typed one by one.
+     */
     public void fillShippingForm(String fn, String ln, String addr, String prov, String pc) {
         waitForForm();
+        if (!"keys".equalsIgnoreCase(ConfigReader.getProperty("checkout.fill", "script"))) {
+            Map<String, String> fields = new LinkedHashMap<>();
+            fields.put("First Name", fn);
+            fields.put("Last Name", ln);
+            fields.put("Address", addr);
+            fields.put("State/Province", prov);
+            fields.put("Postal Code", pc);
+            if (fillScripted(fields)) return;
+        }
         fillFirstName(fn);
         fillLastName(ln);
         fillAddress(addr);
@@ -78,9 +137,40 @@ public class CheckoutPage {
         fillPostalCode(pc);
     }
 
+    /**
+     * Set every label -> value in one executeScript call (React-compatible) and check that each input now
+     * holds its value. Returns false, leaving the caller to type the fields, if any field was missing or did not take.
+     */
+    public boolean fillScripted(Map<String, String> valuesByLabel) {
+        List<Map<String, String>> fields = new ArrayList<>();
+        for (Map.Entry<String, String> e : valuesByLabel.entrySet()) {
+            Map<String, String> f = new HashMap<>();
+            f.put("label", e.getKey());
+            f.put("id", "Address".equals(e.getKey()) ? "addressLine1Input" : null);
+            f.put("value", e.getValue());
+            fields.add(f);
+        }
+        try {
+            List<?> result = (List<?>) ((JavascriptExecutor) driver).executeScript(FILL_JS, CHECKOUT_FORM_CSS, fields);
+            for (Object o : result) {
+                Map<?, ?> r = (Map<?, ?>) o;
+                String label = String.valueOf(r.get("label"));
+                if (!Boolean.TRUE.equals(r.get("found")) || !valuesByLabel.get(label).equals(r.get("value"))) {
+                    System.err.println("DEBUG: scripted checkout fill did not set '" + label + "' (got " + r.get("value") + "), typing instead");
+                    return false;
+                }
+            }
+            System.out.println("DEBUG: checkout form filled by script: " + valuesByLabel.keySet());
+            return true;
+        } catch (Exception e) {
+            System.err.println("DEBUG: scripted checkout fill failed, typing instead: " + e.getMessage());
+            return false;
+        }
+    }
+
     /** Click the continue/submit button on shipping step */
     public void submitShipping() {
         waitForForm();
-        wait.until(ExpectedConditions.elementToBeClickable(submitButton)).click();
+        Waits.until(driver, WAIT, "shipping submit clickable", ExpectedConditions.elementToBeClickable(submitButton)).click();
     }
 }
@@ -0,0 +1,27 @@
+package pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import utils.Screenshots;
+
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A page object that knows which part of the screen matters when a test on it fails
+ * (the floating cart, the checkout form, the product shelf).
+ *
+ *   cartPage.captureFailure(driver, "CartFailed_" + name);
+ *
+ * Only that element and a little margin is captured, plus a thumbnail, instead of the whole maximized window.
+ */
+public interface FailureRegion {
+
+    /** Area to keep; comma-separated CSS is fine, the box around every rendered match is captured. */
+    By getFailureRegion();
+
+    /** Capture this page's failure region (full viewport if it is not on screen); the future gives the stored file. */
+    default CompletableFuture<Path> captureFailure(WebDriver driver, String name) {
+        return Screenshots.captureRegion(driver, getFailureRegion(), name);
+    }
+}
@@ -1,26 +1,40 @@
 package pages;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.Keys;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.LocatorChain;
+import utils.SessionCache;
+import utils.Waits;
 
 import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 public class LoginPage {
     private final WebDriver driver;
-    private final WebDriverWait wait;
+    private static final Duration WAIT = Duration.ofSeconds(6);
+    // the keyboard path either selects right away or not at all; don't spend the full budget before falling back
+    private static final Duration KEYBOARD_WAIT = Duration.ofSeconds(2);
 
     private final By signInBtn = By.id("signin");
     private final By usernameControl = By.cssSelector("#username div.css-yk16xz-control");
     private final By passwordControl = By.cssSelector("#password div.css-yk16xz-control");
     private final By loginBtn = By.id("login-btn");
 
+    // selectors that could correspond to a login modal; a plain login form is the last resort
+    private static final LocatorChain LOGIN_MODAL = LocatorChain.of("login", "modal",
+            By.cssSelector("div.login-modal"),
+            By.cssSelector("#loginModal"),
+            By.cssSelector(".modal.login"),
+            By.cssSelector(".auth-modal"),
+            By.cssSelector("div.modal-content"),
+            By.cssSelector("form#login, form.login-form, form[name='login']"));
+
     public LoginPage(WebDriver driver) {
         this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(6));
     }
  // ----------------- LoginPage addition -----------------
     /**
@@ -29,29 +43,8 @@ public class LoginPage {
      */
     public String getLoginModalHtml() {
         try {
-            // Try several selectors that could correspond to a login modal
-            By[] modalSelectors = new By[] {
-                By.cssSelector("div.login-modal"),
-                By.cssSelector("#loginModal"),
-                By.cssSelector(".modal.login"),
-                By.cssSelector(".auth-modal"),
-                By.cssSelector("div.modal-content")
-            };
-
-            for (By sel : modalSelectors) {
-                List<WebElement> els = driver.findElements(sel);
-                if (!els.isEmpty()) {
-                    return els.get(0).getAttribute("innerHTML");
-                }
-            }
-
-            // If nothing matched, attempt to find a login form
-            List<WebElement> forms = driver.findElements(By.cssSelector("form#login, form.login-form, form[name='login']"));
-            if (!forms.isEmpty()) {
-                return forms.get(0).getAttribute("innerHTML");
-            }
-
-            return "";
+            WebElement modal = LOGIN_MODAL.find(driver);
+            return modal != null ? modal.getAttribute("innerHTML") : "";
         } catch (Exception e) {
             // In debug mode we prefer to return empty string than throw
             System.err.println("DEBUG: getLoginModalHtml() error: " + e.getMessage());
@@ -61,35 +54,61 @@ public class LoginPage {
 
 
     public void openLoginForm() {
-        driver.findElement(signInBtn).click();
-        wait.until(ExpectedConditions.visibilityOfElementLocated(usernameControl));
+        Waits.until(driver, WAIT, "sign-in link clickable", ExpectedConditions.elementToBeClickable(signInBtn)).click();
+        Waits.until(driver, WAIT, "login form visible", ExpectedConditions.visibilityOfElementLocated(usernameControl));
     }
 
     private void selectCustomDropdown(String containerId, String visibleText) {
         By control = By.cssSelector("#" + containerId + " div.css-yk16xz-control");
-        wait.until(ExpectedConditions.elementToBeClickable(control));
+        Waits.until(driver, WAIT, containerId + " dropdown clickable", ExpectedConditions.elementToBeClickable(control));
 
         // If already selected and matches, return
-        try {
-            WebElement current = driver.findElement(By.cssSelector("#" + containerId + " div.css-1uccc91-singleValue"));
-            if (current != null && visibleText != null &&
-                current.getText().trim().equalsIgnoreCase(visibleText.trim())) {
-                return;
+        if (isSelected(containerId, visibleText)) return;
+
+        // fast path: type into the react-select input and let ENTER pick the (filtered) focused option
+        List<WebElement> input = Waits.findAll(driver, By.cssSelector("#" + containerId + " input"));
+        if (!input.isEmpty()) {
+            try {
+                driver.findElement(control).click();
+                input.get(0).sendKeys(visibleText, Keys.ENTER);
+                if (waitSelected(containerId, visibleText, KEYBOARD_WAIT)) return;
+                System.err.println("DEBUG: keyboard selection of '" + visibleText + "' not confirmed for " + containerId + ", clicking option");
+            } catch (Exception e) {
+                System.err.println("DEBUG: keyboard selection failed for " + containerId + ": " + e.getMessage());
             }
-        } catch (Exception ignored) { /* not selected yet */ }
-
-        // open dropdown and click first matching option (using contains)
-        driver.findElement(control).click();
-        By optionXpath = By.xpath("//div[@id='" + containerId + "']//div[contains(normalize-space(.), \"" + visibleText + "\")]");
-        wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(optionXpath));
-        List<WebElement> opts = driver.findElements(optionXpath);
-        if (opts.isEmpty()) {
+        }
+
+        // open dropdown and click first matching option (using contains); menu options only, not the control itself
+        if (Waits.findAll(driver, By.xpath(optionXpath(containerId, ""))).isEmpty()) driver.findElement(control).click();
+        By optionXpath = By.xpath(optionXpath(containerId, visibleText));
+        List<WebElement> opts = Waits.tryUntil(driver, WAIT, containerId + " option present",
+                ExpectedConditions.presenceOfAllElementsLocatedBy(optionXpath));
+        if (opts == null || opts.isEmpty()) {
             throw new RuntimeException("Option containing '" + visibleText + "' not found for: " + containerId);
         }
         opts.get(0).click();
+        waitSelected(containerId, visibleText, WAIT);
+    }
 
-        // small pause to allow UI to update (keeps original behavior)
-        try { Thread.sleep(200); } catch (InterruptedException ignored) {}
+    private static String optionXpath(String containerId, String visibleText) {
+        return "//div[@id='" + containerId + "']//div[contains(@id, '-option-') or contains(@class, '-option')]"
+                + "[contains(normalize-space(.), \"" + visibleText + "\")]";
+    }
+
+    private boolean isSelected(String containerId, String visibleText) {
+        try {
+            List<WebElement> current = Waits.findAll(driver, By.cssSelector("#" + containerId + " div.css-1uccc91-singleValue"));
+            return !current.isEmpty() && visibleText != null
+                    && current.get(0).getText().trim().equalsIgnoreCase(visibleText.trim());
+        } catch (Exception e) {
+            return false; // not selected yet / re-rendered
+        }
+    }
+
+    // one condition on the shown value instead of a fixed pause
+    private boolean waitSelected(String containerId, String visibleText, Duration budget) {
+        return Waits.tryUntil(driver, budget, containerId + " shows '" + visibleText + "'",
+                d -> isSelected(containerId, visibleText) ? Boolean.TRUE : null) != null;
     }
 
     public void selectUsername(String username) {
@@ -101,7 +120,34 @@ public class LoginPage {
     }
 
     public void clickLogin() {
-        wait.until(ExpectedConditions.elementToBeClickable(loginBtn)).click();
+        Waits.until(driver, WAIT, "login button clickable", ExpectedConditions.elementToBeClickable(loginBtn)).click();
+    }
+
+    /**
+     * Log in as username, restoring the session captured by an earlier UI login of the same user in this suite
+     * when there is one (see utils.SessionCache). Tests about the login UI itself should keep using the
+     * openLoginForm / select / clickLogin steps.
+     */
+    public void loginAs(String username, String password) {
+        ReentrantLock lock = SessionCache.lock(username);
+        lock.lock();
+        try {
+            if (SessionCache.restore(driver, username, d -> isLoggedInAs(username))) return;
+            openLoginForm();
+            selectUsername(username);
+            selectPassword(password);
+            clickLogin();
+            if (isLoggedInAs(username)) SessionCache.capture(driver, username);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** True once the header shows username (waits up to the page budget). */
+    public boolean isLoggedInAs(String username) {
+        By shown = By.xpath("//*[contains(text(),'" + username + "')]");
+        return Waits.tryUntil(driver, WAIT, "logged in as " + username,
+                d -> Waits.findAll(d, shown).isEmpty() ? null : Boolean.TRUE) != null;
     }
 
     public String getPageTitle() {
@@ -0,0 +1,198 @@
+package pages;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import utils.Waits;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Index of the product grid, read in one executeScript call: title, price, vendor and position of every tile.
+ * Name and vendor lookups are then plain map lookups on the Java side; substring lookups scan the (small) grid.
+ *
+ * The first read installs a MutationObserver that bumps a per-document version whenever the grid changes
+ * (filter, sort, search, navigation). buyButton() only hands out a button while that version still matches
+ * the one the index was built from, so a stale index is detected in the same round trip as the lookup.
+ */
+public final class ProductCatalog {
+    private static final String TILE_CSS = "div.shelf-item";
+    private static final String TITLE_CSS = "p.shelf-item__title";
+    private static final String PRICE_CSS = ".shelf-item__price .val";
+    private static final String BUY_CSS = "div.shelf-item__buy-btn";
+    private static final Pattern PRICE = Pattern.compile("([0-9][0-9,]*(?:\\.[0-9]+)?)");
+    // a read that comes back empty (page mid-navigation) is retried this often, READ_RETRY_MS apart
+    private static final int READ_ATTEMPTS = 3;
+    private static final long READ_RETRY_MS = 250;
+
+    // tiles of the grid only: the floating cart reuses the shelf-item class for its rows
+    private static final String JS_TILES =
+        "function tiles(css) { return Array.prototype.filter.call(document.querySelectorAll(css)," +
+        "  function (t) { return !t.closest('.float-cart'); }); }";
+    private static final String JS_VERSION =
+        "function version() { var s = window.__shelfIndex; return s ? s.doc + ':' + s.n : null; }";
+
+    private static final String READ_JS = JS_TILES + JS_VERSION +
+        "if (!window.__shelfIndex) {" +
+        "  var s = window.__shelfIndex = {doc: Math.random().toString(36).slice(2), n: 0};" +
+        "  new MutationObserver(function (ms) {" +
+        "    for (var i = 0; i < ms.length; i++) {" +
+        "      var el = ms[i].target.nodeType === 1 ? ms[i].target : ms[i].target.parentElement;" +
+        "      if (!el || el.closest('.float-cart')) continue;" +
+        "      if (el.closest('.shelf-item, .shelf-container, .shelf') || el.querySelector('.shelf-item')) { s.n++; return; }" +
+        "    }" +
+        "  }).observe(document.documentElement, {childList: true, subtree: true, characterData: true});" +
+        "}" +
+        "var titleCss = arguments[1], priceCss = arguments[2];" +
+        "var items = tiles(arguments[0]).map(function (t) {" +
+        "  var n = t.querySelector(titleCss), p = t.querySelector(priceCss);" +
+        "  return {id: t.id || '', title: n ? n.innerText.trim() : null, price: p ? p.innerText : ''};" +
+        "});" +
+        "var vendors = Array.prototype.map.call(document.querySelectorAll('.filters input:checked')," +
+        "  function (i) { return i.value || (i.parentElement ? i.parentElement.innerText.trim() : ''); });" +
+        "return {version: version(), items: items, vendors: vendors};";
+
+    private static final String BUY_JS = JS_TILES + JS_VERSION +
+        "if (version() !== arguments[0]) return null;" +
+        "var t = tiles(arguments[1])[arguments[2]];" +
+        "return t ? t.querySelector(arguments[3]) : null;";
+
+    // tiles do not show the vendor; infer it from the title when no single vendor filter is active
+    private static final Map<String, String> VENDOR_BY_TITLE = new LinkedHashMap<>();
+    static {
+        VENDOR_BY_TITLE.put("iphone", "Apple");
+        VENDOR_BY_TITLE.put("galaxy", "Samsung");
+        VENDOR_BY_TITLE.put("pixel", "Google");
+        VENDOR_BY_TITLE.put("one plus", "OnePlus");
+        VENDOR_BY_TITLE.put("oneplus", "OnePlus");
+    }
+
+    /** One grid tile. index is its position among the grid's tiles when the index was read. */
+    public static final class Product {
+        private final int index;
+        private final String id;
+        private final String title;
+        private final double price;
+        private final String vendor;
+
+        Product(int index, String id, String title, double price, String vendor) {
+            this.index = index;
+            this.id = id;
+            this.title = title;
+            this.price = price;
+            this.vendor = vendor;
+        }
+
+        public int getIndex() { return index; }
+        public String getId() { return id; }
+        public String getTitle() { return title; }
+        public double getPrice() { return price; }
+        public String getVendor() { return vendor; }
+
+        @Override
+        public String toString() {
+            return title + " (" + vendor + ", " + price + ")";
+        }
+    }
+
+    private final String version;
+    private final List<Product> products;
+    private final Map<String, Product> byTitle = new HashMap<>();
+    private final Map<String, List<Product>> byVendor = new HashMap<>();
+
+    private ProductCatalog(String version, List<Product> products) {
+        this.version = version;
+        this.products = Collections.unmodifiableList(products);
+        for (Product p : products) {
+            String t = p.getTitle().toLowerCase(Locale.ROOT);
+            byTitle.putIfAbsent(t, p);
+            byVendor.computeIfAbsent(p.getVendor().toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(p);
+        }
+    }
+
+    /** Read the whole grid in one round trip (retried briefly while the page is mid-navigation). */
+    public static ProductCatalog read(WebDriver driver) {
+        Map<?, ?> raw = null;
+        for (int attempt = 1; attempt <= READ_ATTEMPTS; attempt++) {
+            Object out = ((JavascriptExecutor) driver).executeScript(READ_JS, TILE_CSS, TITLE_CSS, PRICE_CSS);
+            if (out instanceof Map && ((Map<?, ?>) out).get("items") instanceof List) {
+                raw = (Map<?, ?>) out;
+                break;
+            }
+            if (attempt < READ_ATTEMPTS) Waits.pause(READ_RETRY_MS);
+        }
+        if (raw == null) {
+            System.err.println("DEBUG: product grid could not be read, using an empty catalog");
+            return new ProductCatalog("", new ArrayList<>());
+        }
+        List<?> vendors = (List<?>) raw.get("vendors");
+        String filterVendor = vendors != null && vendors.size() == 1 ? String.valueOf(vendors.get(0)) : null;
+
+        List<Product> products = new ArrayList<>();
+        List<?> items = (List<?>) raw.get("items");
+        for (int i = 0; i < items.size(); i++) {
+            Map<?, ?> it = (Map<?, ?>) items.get(i);
+            Object title = it.get("title");
+            if (title == null) continue;
+            String t = title.toString();
+            products.add(new Product(i, String.valueOf(it.get("id")), t, parsePrice(String.valueOf(it.get("price"))),
+                    filterVendor != null ? filterVendor : inferVendor(t)));
+        }
+        return new ProductCatalog(String.valueOf(raw.get("version")), products);
+    }
+
+    /**
+     * Buy button of the given product, or null if the grid changed since this index was read
+     * (the caller should read a fresh catalog then).
+     */
+    public WebElement buyButton(WebDriver driver, Product p) {
+        Object el = ((JavascriptExecutor) driver).executeScript(BUY_JS, version, TILE_CSS, p.getIndex(), BUY_CSS);
+        return el instanceof WebElement ? (WebElement) el : null;
+    }
+
+    public String getVersion() { return version; }
+
+    public List<Product> getProducts() { return products; }
+
+    public int size() { return products.size(); }
+
+    /** Exact title match (case-insensitive), or null. */
+    public Product byName(String title) {
+        return byTitle.get(title.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /** First tile whose title contains partialName (case-insensitive), or null. */
+    public Product byNameContaining(String partialName) {
+        String key = partialName.trim().toLowerCase(Locale.ROOT);
+        for (Product p : products) {
+            if (p.getTitle().toLowerCase(Locale.ROOT).contains(key)) return p;
+        }
+        return null;
+    }
+
+    public List<Product> byVendor(String vendor) {
+        List<Product> list = byVendor.get(vendor.trim().toLowerCase(Locale.ROOT));
+        return list == null ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+
+    private static String inferVendor(String title) {
+        String t = title.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, String> e : VENDOR_BY_TITLE.entrySet()) {
+            if (t.startsWith(e.getKey()) || t.contains(" " + e.getKey())) return e.getValue();
+        }
+        return "";
+    }
+
+    private static double parsePrice(String text) {
+        Matcher m = PRICE.matcher(text);
+        return m.find() ? Double.parseDouble(m.group(1).replace(",", "")) : Double.NaN;
+    }
+}
@@ -4,15 +4,22 @@ package pages;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import utils.Waits;
+
+import java.time.Duration;
 import java.util.List;
 
 public class ProductPage {
     private WebDriver driver;
+    private static final Duration WAIT = Duration.ofSeconds(10);
 
     // Locators
-    private By productContainer = By.cssSelector("div.shelf-item");
-    private By productName = By.cssSelector("p.shelf-item__title");
-    private By addToCartBtn = By.cssSelector("div.shelf-item__buy-btn");
+    private static final String PRODUCT_CSS = "div.shelf-item";
+    private static final String BUY_CSS = "div.shelf-item__buy-btn";
+    private By productContainer = By.cssSelector(PRODUCT_CSS);
+    private By addToCartBtn = By.cssSelector(BUY_CSS);
+    private ProductCatalog catalog;
 
     public ProductPage(WebDriver driver) {
         this.driver = driver;
@@ -20,7 +27,7 @@ public class ProductPage {
 
     // Add first product in list
     public void addFirstProductToCart() {
-        List<WebElement> items = driver.findElements(productContainer);
+        List<WebElement> items = waitForProducts();
         System.out.println("DEBUG: Found product count = " + items.size());
         if (items.size() > 0) {
             items.get(0).findElement(addToCartBtn).click();
@@ -32,20 +39,36 @@ public class ProductPage {
 
     // Add product by partial name (contains match)
     public boolean addProductToCartByName(String name) {
-        List<WebElement> items = driver.findElements(productContainer);
-        System.out.println("DEBUG: Searching " + items.size() + " products for name containing: " + name);
-        for (WebElement item : items) {
-            try {
-                String title = item.findElement(productName).getText().trim();
-                if (title.toLowerCase().contains(name.trim().toLowerCase())) {
-                    item.findElement(addToCartBtn).click();
-                    System.out.println("DEBUG: Clicked add for product: " + title);
+        // answered from the cached index; buyButton() checks the grid version in the same call,
+        // so a stale index costs one re-read instead of a version check on every lookup
+        for (int attempt = 0; attempt < 2; attempt++) {
+            boolean fresh = catalog == null;
+            if (fresh) {
+                waitForProducts();
+                catalog = ProductCatalog.read(driver);
+            }
+            System.out.println("DEBUG: Searching " + catalog.size() + " products for name containing: " + name);
+            ProductCatalog.Product p = catalog.byNameContaining(name);
+            WebElement buy = p == null ? null : catalog.buyButton(driver, p);
+            if (buy != null) {
+                try {
+                    buy.click();
+                    System.out.println("DEBUG: Clicked add for product: " + p.getTitle());
                     return true;
-                }
-            } catch (Exception e) { }
+                } catch (Exception e) { }
+            }
+            if (fresh) break;
+            catalog = null;
         }
         System.err.println("DEBUG: No product matched name: " + name);
         return false;
     }
+
+    // shelf renders client-side: wait for it explicitly instead of relying on the implicit wait
+    private List<WebElement> waitForProducts() {
+        List<WebElement> items = Waits.tryUntil(driver, WAIT, "product shelf rendered",
+                ExpectedConditions.presenceOfAllElementsLocatedBy(productContainer));
+        return items != null ? items : Waits.findAll(driver, productContainer);
+    }
     
 }
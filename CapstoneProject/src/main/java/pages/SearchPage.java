@@ -3,12 +3,26 @@ package pages;
 import org.openqa.selenium.*;
 import org.openqa.selenium.support.FindBy;
 import org.openqa.selenium.support.PageFactory;
+import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.Select;
+import utils.DomWaits;
+import utils.Waits;
+
+import java.time.Duration;
 
 import java.util.List;
 
-public class SearchPage {
+public class SearchPage implements FailureRegion {
     private final WebDriver driver;
+    private static final Duration WAIT = Duration.ofSeconds(10);
+    private static final String PRODUCT_TITLE_CSS = ".shelf-item__title, .product-title, .title";
+    private final By productTitleSel = By.cssSelector(PRODUCT_TITLE_CSS);
+    // "N Product(s) found" header and the first four tiles; Screenshots keeps the box around all of them
+    private final By failureRegion = By.cssSelector(".shelf-container-header, .shelf-container > .shelf-item:nth-of-type(-n+5)");
+
+    // DomWaits predicate; args: tile css, title css, fingerprint to move away from
+    private static final String JS_RESULTS_CHANGED =
+        "(function () {" + SearchResults.JS_FINGERPRINT + "return fingerprint(titlesOf(args[0], args[1])) !== args[2]; })()";
 
     @FindBy(css = ".shelf-item__title, .product-title, .title")
     private List<WebElement> productTitles;
@@ -21,14 +35,41 @@ public class SearchPage {
         PageFactory.initElements(driver, this);
     }
 
+    @Override
+    public By getFailureRegion() {
+        return failureRegion;
+    }
+
     public List<WebElement> getProductTitles() {
+        // the shelf renders client-side; with a zero implicit wait the lazy list would read it empty
+        Waits.tryUntil(driver, WAIT, "product titles present", ExpectedConditions.presenceOfAllElementsLocatedBy(productTitleSel));
         return productTitles;
     }
 
+    /** Titles, prices and count of the current results in one round trip. */
+    public SearchResults getResults() {
+        Waits.tryUntil(driver, WAIT, "product titles present", ExpectedConditions.presenceOfAllElementsLocatedBy(productTitleSel));
+        return SearchResults.capture(driver);
+    }
+
+    /**
+     * Wait until the results differ from before (compared by fingerprint inside the browser, re-checked on
+     * DOM mutations) and return the new results. On timeout the current, unchanged results are returned.
+     */
+    public SearchResults waitForResultsChange(SearchResults before) {
+        return waitForResultsChange(before, WAIT);
+    }
+
+    public SearchResults waitForResultsChange(SearchResults before, Duration budget) {
+        DomWaits.until(driver, null, budget, "search results changed", JS_RESULTS_CHANGED,
+                SearchResults.TILE_CSS, SearchResults.TITLE_CSS, before.getFingerprint());
+        return SearchResults.capture(driver);
+    }
+
     public void applyVendorFilter(String vendor) {
-        WebElement label = driver.findElement(By.xpath(
+        WebElement label = Waits.until(driver, WAIT, "vendor filter '" + vendor + "' present", ExpectedConditions.presenceOfElementLocated(By.xpath(
             "//label[.//span[normalize-space()='" + vendor + "'] or normalize-space(.)='" + vendor + "']"
-        ));
+        )));
         label.click();
     }
 
@@ -47,11 +88,14 @@ public class SearchPage {
 
     public boolean verifyVendorOnly(String vendor) {
         try {
-            WebElement label = driver.findElement(By.xpath(
+            // the filter was applied by the caller; a missing label is an answer, not something to wait for
+            List<WebElement> labels = Waits.findAll(driver, By.xpath(
                 "//label[.//span[normalize-space()='" + vendor + "'] or normalize-space(.)='" + vendor + "']"
             ));
-            WebElement input = label.findElement(By.cssSelector("input"));
-            return input.isSelected() || label.getAttribute("class").toLowerCase().contains("active");
+            if (labels.isEmpty()) return false;
+            WebElement label = labels.get(0);
+            List<WebElement> input = Waits.findAll(driver, label, By.cssSelector("input"));
+            return (!input.isEmpty() && input.get(0).isSelected()) || label.getAttribute("class").toLowerCase().contains("active");
         } catch (Exception e) {
             return false;
         }
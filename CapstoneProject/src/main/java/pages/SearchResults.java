@@ -0,0 +1,104 @@
+package pages;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of the search result grid: every title and price plus the result count, read tile by tile
+ * in one executeScript call, so the n-th price always belongs to the n-th title. The fingerprint is computed in the browser by the same function that
+ * SearchPage.waitForResultsChange() evaluates, so "did the results change" is decided without
+ * shipping the lists back and forth.
+ */
+public final class SearchResults {
+    private static final Pattern PRICE = Pattern.compile("([0-9][0-9,]*(?:\\.[0-9]+)?)");
+
+    static final String TITLE_CSS = ".shelf-item__title, .product-title, .title";
+    static final String TILE_CSS = "div.shelf-item";
+    static final String PRICE_CSS = ".shelf-item__price .val";
+
+    // result tiles (not the floating cart's rows), each tile's title, and an order-sensitive hash of the titles;
+    // usable as a DomWaits predicate prefix. Markup without tiles falls back to the title elements themselves.
+    static final String JS_FINGERPRINT =
+        "function resultsOf(css) { return Array.prototype.filter.call(document.querySelectorAll(css)," +
+        "  function (e) { return !e.closest('.float-cart'); }); }" +
+        "function tilesOf(tileCss, titleCss) { var t = resultsOf(tileCss); return t.length ? t : resultsOf(titleCss); }" +
+        "function titleOf(tile, titleCss) {" +
+        "  var e = tile.matches(titleCss) ? tile : tile.querySelector(titleCss);" +
+        "  return e ? (e.innerText || e.textContent || '').trim() : '';" +
+        "}" +
+        "function titlesOf(tileCss, titleCss) { return tilesOf(tileCss, titleCss).map(function (t) { return titleOf(t, titleCss); }); }" +
+        "function fingerprint(titles) {" +
+        "  var h = 0, s = titles.join('\\n');" +
+        "  for (var i = 0; i < s.length; i++) h = (h * 31 + s.charCodeAt(i)) | 0;" +
+        "  return titles.length + ':' + (h >>> 0).toString(16);" +
+        "}";
+
+    // args: tile css, title css, price css; title and price are read from the same tile
+    private static final String SNAPSHOT_JS = JS_FINGERPRINT +
+        "var titleCss = arguments[1], priceCss = arguments[2], titles = [], prices = [];" +
+        "tilesOf(arguments[0], titleCss).forEach(function (t) {" +
+        "  titles.push(titleOf(t, titleCss));" +
+        "  var p = t.querySelector(priceCss);" +
+        "  prices.push(p ? p.innerText : '');" +
+        "});" +
+        "return {titles: titles, prices: prices, fingerprint: fingerprint(titles)};";
+
+    private final List<String> titles;
+    private final List<Double> prices;
+    private final String fingerprint;
+
+    private SearchResults(List<String> titles, List<Double> prices, String fingerprint) {
+        this.titles = Collections.unmodifiableList(titles);
+        this.prices = Collections.unmodifiableList(prices);
+        this.fingerprint = fingerprint;
+    }
+
+    /** Read titles, prices and fingerprint in one round trip. */
+    public static SearchResults capture(WebDriver driver) {
+        Map<?, ?> raw = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(SNAPSHOT_JS, TILE_CSS, TITLE_CSS, PRICE_CSS);
+        List<String> titles = new ArrayList<>();
+        for (Object t : (List<?>) raw.get("titles")) titles.add(String.valueOf(t));
+        List<Double> prices = new ArrayList<>();
+        for (Object p : (List<?>) raw.get("prices")) prices.add(parsePrice(String.valueOf(p)));
+        return new SearchResults(titles, prices, String.valueOf(raw.get("fingerprint")));
+    }
+
+    private static double parsePrice(String text) {
+        Matcher m = PRICE.matcher(text);
+        return m.find() ? Double.parseDouble(m.group(1).replace(",", "")) : Double.NaN;
+    }
+
+    public List<String> getTitles() { return titles; }
+
+    /** Titles in alphabetical order, for order-insensitive comparisons. */
+    public List<String> getSortedTitles() {
+        return titles.stream().sorted().collect(Collectors.toList());
+    }
+
+    /** Price of every product tile in grid order; NaN where none is shown. */
+    public List<Double> getPrices() { return prices; }
+
+    public int getCount() { return titles.size(); }
+
+    /** "count:hash" of the titles in grid order; equal fingerprints mean the grid did not change. */
+    public String getFingerprint() { return fingerprint; }
+
+    /** True when any title contains text (case-insensitive). */
+    public boolean containsTitle(String text) {
+        String t = text.toLowerCase();
+        return titles.stream().anyMatch(s -> s.toLowerCase().contains(t));
+    }
+
+    @Override
+    public String toString() {
+        return "SearchResults{count=" + titles.size() + ", fingerprint=" + fingerprint + ", titles=" + titles + "}";
+    }
+}
@@ -0,0 +1,96 @@
+package pages;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import utils.ConfigReader;
+import utils.DriverFactory;
+import utils.Waits;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Browser shards for a parallel data provider: every worker thread that runs a row gets its own driver,
+ * HomePage and SearchPage on the storefront, and keeps them for the rows it picks up after that. With
+ * @DataProvider(parallel = true) TestNG deals the rows out to its data-provider threads (parallel.threads),
+ * so a test class ends up with one browser per thread, each working through its share of the sheet.
+ *
+ *   private final SearchSessions sessions = new SearchSessions();
+ *   SearchSessions.Session s = sessions.current();   // in the test and its @AfterMethod
+ *   sessions.closeAll();                              // @AfterClass
+ *
+ * The drivers come from DriverFactory.newDriver, so driver.mode=pool hands out warm sessions and they are
+ * returned to the pool on closeAll.
+ */
+public class SearchSessions {
+    private static final int IMPLICIT_WAIT_SECONDS = 10;
+    private static final Duration READY_WAIT = Duration.ofSeconds(30);
+
+    private final ThreadLocal<Session> local = new ThreadLocal<>();
+    private final Set<Session> open = ConcurrentHashMap.newKeySet();
+
+    /** One worker's browser and the page objects bound to it. */
+    public static final class Session {
+        private final WebDriver driver;
+        private final HomePage homePage;
+        private final SearchPage searchPage;
+
+        private Session(WebDriver driver) {
+            this.driver = driver;
+            this.homePage = new HomePage(driver);
+            this.searchPage = new SearchPage(driver);
+        }
+
+        public WebDriver getDriver() {
+            return driver;
+        }
+
+        public HomePage getHomePage() {
+            return homePage;
+        }
+
+        public SearchPage getSearchPage() {
+            return searchPage;
+        }
+    }
+
+    /** The calling thread's session, opening it (browser on the storefront, search box ready) on first use. */
+    public Session current() {
+        Session session = local.get();
+        if (session != null && open.contains(session)) return session;
+
+        WebDriver driver = DriverFactory.newDriver(ConfigReader.getProperty("browser", "chrome"));
+        try {
+            Waits.applyImplicitWait(driver, IMPLICIT_WAIT_SECONDS);
+            // the rows check tile layout and sort order, so a pooled session must not keep an earlier test's window
+            DriverFactory.applyDefaultWindow(driver);
+            driver.get(ConfigReader.getProperty("url"));
+            session = new Session(driver);
+            Waits.until(driver, READY_WAIT, "search box clickable", ExpectedConditions.elementToBeClickable(session.getHomePage().getSearchBox()));
+        } catch (RuntimeException e) {
+            DriverFactory.quitDriver(driver);
+            throw e;
+        }
+        local.set(session);
+        open.add(session);
+        System.out.println("DEBUG: " + Thread.currentThread().getName() + " opened search session " + open.size());
+        return session;
+    }
+
+    /** Session of the calling thread if it has one, without opening a browser (e.g. for failure screenshots). */
+    public Session existing() {
+        Session session = local.get();
+        return session != null && open.contains(session) ? session : null;
+    }
+
+    /** Quit (or return to the pool) every session's browser; a thread that runs another row opens a new one. */
+    public void closeAll() {
+        List<Session> sessions = new ArrayList<>(open);
+        open.clear();
+        for (Session s : sessions) DriverFactory.quitDriver(s.getDriver());
+        local.remove();
+    }
+}
@@ -2,9 +2,15 @@ package pages;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import utils.Waits;
+
+import java.time.Duration;
 
 public class SignUpPage {
     private WebDriver driver;
+    // per-call budget for the form's waits (see utils.Waits)
+    private static final Duration WAIT = Duration.ofSeconds(8);
 
     // Mock locators (adjust if real app has signup page)
     private By signupLink = By.id("signup-link");
@@ -18,22 +24,22 @@ public class SignUpPage {
     }
 
     public void openSignupPage() {
-        driver.findElement(signupLink).click();
+        Waits.until(driver, WAIT, "sign-up link clickable", ExpectedConditions.elementToBeClickable(signupLink)).click();
     }
 
     public void enterUsername(String username) {
-        driver.findElement(usernameField).sendKeys(username);
+        Waits.until(driver, WAIT, "username field visible", ExpectedConditions.visibilityOfElementLocated(usernameField)).sendKeys(username);
     }
 
     public void enterEmail(String email) {
-        driver.findElement(emailField).sendKeys(email);
+        Waits.until(driver, WAIT, "email field visible", ExpectedConditions.visibilityOfElementLocated(emailField)).sendKeys(email);
     }
 
     public void enterPassword(String password) {
-        driver.findElement(passwordField).sendKeys(password);
+        Waits.until(driver, WAIT, "password field visible", ExpectedConditions.visibilityOfElementLocated(passwordField)).sendKeys(password);
     }
 
     public void clickSignup() {
-        driver.findElement(signupBtn).click();
+        Waits.until(driver, WAIT, "sign-up button clickable", ExpectedConditions.elementToBeClickable(signupBtn)).click();
     }
 }
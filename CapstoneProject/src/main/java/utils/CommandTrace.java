@@ -0,0 +1,278 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.BufferedWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-command accounting for drivers handed out by DriverFactory (trace.commands=true).
+ *
+ * Every WebDriver / WebElement / navigation call is timed and attributed to the innermost page-object
+ * method on the stack (e.g. CartPage.getQuantityForItem; test or framework code when no page object is
+ * involved) and classed as "wait" when it runs inside Waits, DomWaits or a WebDriverWait, "act" otherwise.
+ *
+ * beginTest/endTest bracket a test on the calling thread; endTest returns the per-method table for that test.
+ * Suite totals per test, method and command go to target/command-trace.csv at JVM exit.
+ * While a Flight Recorder recording is running, each command and page-object action is also a JfrEvents event.
+ */
+public class CommandTrace implements WebDriverListener {
+    private static final Path CSV_FILE = Paths.get("target", "command-trace.csv");
+    private static final Set<String> UNTRACED = Set.of("toString", "hashCode", "equals", "getWrappedDriver", "getWrappedElement");
+    private static final StackWalker WALKER = StackWalker.getInstance();
+    private static final String NO_TEST = "(no test)";
+    // key separator for the suite totals; locators can contain '|' (XPath unions) and ','
+    private static final String SEP = "\u001f";
+
+    private static final CommandTrace LISTENER = new CommandTrace();
+    private static final ThreadLocal<Deque<Call>> starts = ThreadLocal.withInitial(ArrayDeque::new);
+    private static final ThreadLocal<String> currentTest = new ThreadLocal<>();
+    private static final ThreadLocal<Map<String, Stat>> testStats = ThreadLocal.withInitial(LinkedHashMap::new);
+    // element -> locator it was found with, so element commands can name what they act on
+    private static final Map<Object, String> locators = Collections.synchronizedMap(new WeakHashMap<>());
+    // test, caller, command, locator, phase -> totals, for the CSV
+    private static final Map<String, Stat> suite = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(CommandTrace::save, "command-trace"));
+    }
+
+    /** A command in flight: its start and, when a recording wants them, the JFR events begun with it. */
+    private static final class Call {
+        final long start = System.nanoTime();
+        JfrEvents.DriverCommand command;
+        JfrEvents.PageAction page;
+    }
+
+    /** Count / total / wait / act nanoseconds. */
+    static final class Stat {
+        long count;
+        long totalNanos;
+        long waitNanos;
+
+        synchronized void add(long nanos, boolean waiting) {
+            count++;
+            totalNanos += nanos;
+            if (waiting) waitNanos += nanos;
+        }
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("trace.commands", "false"));
+    }
+
+    /** driver wrapped so its commands are traced (accounting, Timeline and/or JFR), or driver itself when all are off. */
+    public static WebDriver decorate(WebDriver driver) {
+        if (!(isEnabled() || Timeline.isEnabled() || JfrEvents.tracesCommands()) || driver instanceof WrapsDriver) return driver;
+        return new EventFiringDecorator<WebDriver>(LISTENER).decorate(driver);
+    }
+
+    /** The undecorated driver behind a decorate() result (pool ownership, DevTools, quit). */
+    public static WebDriver unwrap(WebDriver driver) {
+        return driver instanceof WrapsDriver ? ((WrapsDriver) driver).getWrappedDriver() : driver;
+    }
+
+    public static void beginTest(String name) {
+        currentTest.set(name);
+        testStats.get().clear();
+    }
+
+    /**
+     * End the calling thread's test and return its table: header row, then one row per method
+     * (slowest first) with command count, total, wait and act milliseconds. Null if nothing was traced.
+     */
+    public static String[][] endTest() {
+        Map<String, Stat> stats = testStats.get();
+        currentTest.remove();
+        if (stats.isEmpty()) return null;
+        List<Map.Entry<String, Stat>> rows = new ArrayList<>(stats.entrySet());
+        rows.sort((a, b) -> Long.compare(b.getValue().totalNanos, a.getValue().totalNanos));
+        String[][] table = new String[rows.size() + 1][];
+        table[0] = new String[] {"Method", "Commands", "Total ms", "Wait ms", "Act ms"};
+        for (int i = 0; i < rows.size(); i++) {
+            Stat s = rows.get(i).getValue();
+            table[i + 1] = new String[] {rows.get(i).getKey(), String.valueOf(s.count),
+                    ms(s.totalNanos), ms(s.waitNanos), ms(s.totalNanos - s.waitNanos)};
+        }
+        stats.clear();
+        return table;
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        if (UNTRACED.contains(method.getName())) return;
+        Call call = new Call();
+        JfrEvents.DriverCommand command = new JfrEvents.DriverCommand();
+        if (command.isEnabled()) {
+            call.command = command;
+            call.page = new JfrEvents.PageAction();
+            command.begin();
+            call.page.begin();
+        }
+        starts.get().push(call);
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        if (UNTRACED.contains(method.getName())) return;
+        String locator = locatorOf(target, args);
+        if (result != null && locator != null && method.getName().startsWith("findElement")) {
+            if (result instanceof List) {
+                for (Object e : (List<?>) result) locators.put(e, locator);
+            } else {
+                locators.put(result, locator);
+            }
+        }
+        finish(target, method, locator, false);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        if (!UNTRACED.contains(method.getName())) finish(target, method, locatorOf(target, args), true);
+    }
+
+    private void finish(Object target, Method method, String locator, boolean failed) {
+        Call call = starts.get().poll();
+        if (call == null) return;
+        long start = call.start;
+        long end = System.nanoTime();
+        long nanos = end - start;
+        String command = kind(target) + "." + method.getName();
+        String[] caller = caller();
+        boolean waiting = caller[1] != null;
+
+        if (call.command != null) {
+            call.command.end();
+            JfrEvents.pageCommand(caller[2], call.page);
+            call.command.command = command;
+            call.command.locator = locator;
+            call.command.caller = caller[0];
+            call.command.waiting = waiting;
+            call.command.failed = failed;
+            call.command.commit();
+        }
+
+        if (Timeline.isEnabled()) {
+            Timeline.pageCommand(caller[2], start, end);
+            Map<String, String> args = new LinkedHashMap<>();
+            args.put("locator", locator);
+            args.put("caller", caller[0]);
+            args.put("phase", waiting ? "wait" : "act");
+            Timeline.complete("command", command, start, end, args);
+        }
+        if (!isEnabled()) return;
+
+        testStats.get().computeIfAbsent(caller[0], k -> new Stat()).add(nanos, waiting);
+        String test = currentTest.get();
+        String key = String.join(SEP, test == null ? NO_TEST : test, caller[0], command,
+                locator == null ? "" : locator, waiting ? "wait" : "act");
+        suite.computeIfAbsent(key, k -> new Stat()).add(nanos, waiting);
+    }
+
+    private static String locatorOf(Object target, Object[] args) {
+        if (args != null) {
+            for (Object a : args) {
+                if (a instanceof By) return a.toString();
+            }
+        }
+        return locators.get(target);
+    }
+
+    private static String kind(Object target) {
+        if (target instanceof WebDriver) return "WebDriver";
+        for (Class<?> i : target.getClass().getInterfaces()) {
+            if (i.getName().startsWith("org.openqa.selenium.")) return i.getSimpleName();
+        }
+        return target.getClass().getSimpleName();
+    }
+
+    // [innermost page-object (else test/framework) method, non-null if inside a wait, page-object method or null]
+    private static String[] caller() {
+        return WALKER.walk(frames -> {
+            String page = null;
+            String other = null;
+            String wait = null;
+            for (StackWalker.StackFrame f : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String cls = f.getClassName();
+                if (isWait(cls, f.getMethodName())) {
+                    wait = cls;
+                } else if (page == null && cls.startsWith("pages.")) {
+                    page = label(f);
+                } else if (other == null && !cls.startsWith("org.openqa.") && !cls.startsWith("utils.CommandTrace")
+                        && !cls.startsWith("java.") && !cls.startsWith("jdk.") && !cls.startsWith("sun.")
+                        && !cls.startsWith("net.bytebuddy.")) {
+                    other = label(f);
+                }
+            }
+            return new String[] {page != null ? page : other != null ? other : "(unknown)", wait, page};
+        });
+    }
+
+    // inside Waits.until/tryUntil (not its zero-wait findAll probes), DomWaits or any WebDriverWait
+    private static boolean isWait(String cls, String method) {
+        if (cls.equals("org.openqa.selenium.support.ui.FluentWait") || cls.startsWith("utils.DomWaits")) return true;
+        return cls.startsWith("utils.Waits") && (method.startsWith("until") || method.startsWith("tryUntil") || method.contains("$until"));
+    }
+
+    // pages.CartPage$1 / lambda$openCart$2 -> CartPage.openCart
+    private static String label(StackWalker.StackFrame f) {
+        String cls = f.getClassName();
+        cls = cls.substring(cls.lastIndexOf('.') + 1);
+        int inner = cls.indexOf('$');
+        if (inner > 0) cls = cls.substring(0, inner);
+        String m = f.getMethodName();
+        if (m.startsWith("lambda$")) {
+            int end = m.indexOf('$', 7);
+            m = end > 7 ? m.substring(7, end) : m;
+        }
+        return cls + "." + m;
+    }
+
+    private static String ms(long nanos) {
+        return String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+    }
+
+    static synchronized void save() {
+        if (suite.isEmpty()) return;
+        try {
+            Files.createDirectories(CSV_FILE.getParent());
+            try (BufferedWriter w = Files.newBufferedWriter(CSV_FILE)) {
+                w.write("test,method,command,locator,phase,count,total_ms,wait_ms");
+                w.newLine();
+                for (Map.Entry<String, Stat> e : suite.entrySet()) {
+                    String[] k = e.getKey().split(SEP, -1);
+                    Stat s = e.getValue();
+                    w.write(csv(k[0]) + "," + csv(k[1]) + "," + csv(k[2]) + "," + csv(k[3]) + "," + k[4]
+                            + "," + s.count + "," + ms(s.totalNanos) + "," + ms(s.waitNanos));
+                    w.newLine();
+                }
+            }
+            System.out.println("DEBUG: command trace written to " + CSV_FILE + " (" + suite.size() + " rows)");
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not write " + CSV_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static String csv(String s) {
+        return s.contains(",") || s.contains("\"") ? "\"" + s.replace("\"", "\"\"") + "\"" : s;
+    }
+}
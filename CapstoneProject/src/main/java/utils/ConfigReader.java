@@ -1,42 +1,124 @@
 package utils;
 
-import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
 
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class ConfigReader {
+    private static final String DEFAULT_CONFIG = "testdata/config.properties";
+
     private static Properties prop;
-    private static Sheet sheet;
+    // sheets read by setExcelFile ("file#sheet" -> rows, header first), each parsed once and never modified
+    private static final Map<String, List<String[]>> sheets = new ConcurrentHashMap<>();
+    // sheet each thread selected; reading cells on a thread that never called setExcelFile throws IllegalStateException
+    private static final ThreadLocal<List<String[]>> sheet = new ThreadLocal<>();
+    // runtime values (e.g. the local storefront URL) that must survive later loadConfig() calls
+    private static final Map<String, String> overrides = new ConcurrentHashMap<>();
 
     public static void loadConfig(String resourcePath) {
         try (InputStream in = ConfigReader.class.getClassLoader().getResourceAsStream(resourcePath)) {
-            prop = new Properties();
-            prop.load(in);
+            Properties loaded = new Properties();
+            loaded.load(in);
+            prop = loaded;
         } catch (Exception e) {
             throw new RuntimeException("Failed to load config: " + resourcePath, e);
         }
     }
 
     public static String getProperty(String key) {
+        String override = overrides.get(key);
+        if (override != null) return override;
+        ensureLoaded();
         return prop.getProperty(key);
     }
 
-    public static void setExcelFile(String excelFileName, String sheetName) throws InvalidFormatException {
-        try (InputStream in = ConfigReader.class.getClassLoader().getResourceAsStream(excelFileName)) {
-            Workbook wb = WorkbookFactory.create(in);
-            sheet = wb.getSheet(sheetName);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to load Excel: " + excelFileName, e);
+    public static void setProperty(String key, String value) {
+        overrides.put(key, value);
+    }
+
+    public static void clearOverride(String key) {
+        overrides.remove(key);
+    }
+
+    /** Application URL for a path relative to "url", e.g. getUrl("checkout"). */
+    public static String getUrl(String path) {
+        String base = getProperty("url");
+        if (!base.endsWith("/")) base = base + "/";
+        return path == null ? base : base + (path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    /**
+     * Framework settings lookup: a -Dkey=value system property wins, then config.properties
+     * (loaded on first use if no test has called loadConfig yet), then the given default.
+     */
+    public static String getProperty(String key, String defaultValue) {
+        String sys = System.getProperty(key);
+        if (sys != null && !sys.trim().isEmpty()) return sys.trim();
+        String override = overrides.get(key);
+        if (override != null) return override;
+        ensureLoaded();
+        String value = prop.getProperty(key);
+        return (value == null || value.trim().isEmpty()) ? defaultValue : value.trim();
+    }
+
+    public static int getIntProperty(String key, int defaultValue) {
+        String value = getProperty(key, null);
+        if (value == null) return defaultValue;
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            System.err.println("DEBUG: config '" + key + "' is not a number (" + value + "), using " + defaultValue);
+            return defaultValue;
         }
     }
 
+    private static synchronized void ensureLoaded() {
+        if (prop != null) return;
+        try {
+            loadConfig(DEFAULT_CONFIG);
+        } catch (RuntimeException e) {
+            System.err.println("DEBUG: " + e.getMessage() + " - falling back to defaults");
+            prop = new Properties();
+        }
+    }
+
+    /**
+     * Data rows of an Excel sheet, streamed for a TestNG data provider (see ExcelRows):
+     * only the given 0-based columns, or all of them when none are given.
+     */
+    public static Iterator<Object[]> getExcelRows(String excelFileName, String sheetName, int... columns) {
+        return ExcelRows.iterate(excelFileName, sheetName, columns);
+    }
+
+    // small sheets addressed by row/column; read through the same streaming reader, no workbook is kept
+    public static void setExcelFile(String excelFileName, String sheetName) throws InvalidFormatException {
+        List<String[]> rows = sheets.computeIfAbsent(excelFileName + "#" + sheetName, k -> {
+            List<String[]> read = new ArrayList<>();
+            ExcelRows.open(excelFileName, sheetName).forEachRemaining(read::add);
+            return Collections.unmodifiableList(read);
+        });
+        sheet.set(rows);
+    }
+
     public static String getCellData(int rowNum, int colNum) {
-        return sheet.getRow(rowNum).getCell(colNum).toString();
+        return currentSheet().get(rowNum)[colNum];
     }
 
     public static int getRowCount() {
-        return sheet.getPhysicalNumberOfRows() - 1;
+        return currentSheet().size() - 1;
+    }
+
+    private static List<String[]> currentSheet() {
+        List<String[]> rows = sheet.get();
+        // per thread on purpose: another thread's sheet would silently answer with the wrong data
+        if (rows == null) throw new IllegalStateException("No Excel sheet loaded on this thread, call setExcelFile first");
+        return rows;
     }
 }
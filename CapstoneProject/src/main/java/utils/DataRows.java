@@ -0,0 +1,62 @@
+package utils;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Row numbers for data-provider rows, so results of a parallel data provider can be matched to their row
+ * and put back in sheet order:
+ *
+ *   @DataProvider(parallel = true) public Iterator<Object[]> data() { return DataRows.numbered(ConfigReader.getExcelRows(...)); }
+ *
+ * TestNG copies the parameter array for every invocation but passes the parameter objects through, so the
+ * first parameter (made a distinct object here) identifies the row again: listeners.DataRowListener takes
+ * the number at test start and stores it on the result as ROW_ATTRIBUTE.
+ */
+public class DataRows {
+    public static final String ROW_ATTRIBUTE = "data.row";
+    public static final String SCREENSHOT_ATTRIBUTE = "data.screenshot";
+
+    // first parameter of a handed-out row -> 1-based row number, until the row starts
+    private static final Map<Object, Integer> pending = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /** rows, numbered from 1 as TestNG pulls them. */
+    public static Iterator<Object[]> numbered(Iterator<Object[]> rows) {
+        return new Iterator<Object[]>() {
+            private int next = 1;
+
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                Object[] row = rows.next();
+                if (row.length == 0) return row;
+                // equal strings (literals, repeated cells) can be the same object; the row needs its own
+                if (row[0] instanceof String) row[0] = new String((String) row[0]);
+                pending.put(row[0], next++);
+                return row;
+            }
+        };
+    }
+
+    /** Row number of the invocation with these parameters (removed once taken), or -1 if it was not numbered. */
+    public static int take(Object[] parameters) {
+        if (parameters == null || parameters.length == 0) return -1;
+        Integer row = pending.remove(parameters[0]);
+        return row == null ? -1 : row;
+    }
+
+    /** Forget rows that were handed out but never started (skipped rows); returns how many there were. */
+    public static int clear() {
+        synchronized (pending) {
+            int left = pending.size();
+            pending.clear();
+            return left;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Batched DOM reads: queue several queries, then run them all in one executeScript round trip.
+ *
+ *   DomBatch batch = new DomBatch(driver);
+ *   DomBatch.Result<List<WebElement>> items = batch.elements("div.shelf-item");
+ *   DomBatch.Result<List<String>> titles = batch.childTexts("div.shelf-item", "p.shelf-item__title");
+ *   titles.get();   // first get() runs the whole batch
+ *
+ * Elements come back as normal WebElements, so page objects keep clicking/typing through WebDriver.
+ * child* queries are aligned with the parent list (null where a parent has no such child), also in the
+ * fallback: queries on the same selector reuse one lookup.
+ * All selectors are CSS; an optional root element scopes every query. If the script cannot run,
+ * the same queries are answered with zero-wait element lookups.
+ */
+public class DomBatch {
+    private static final String SCRIPT =
+        "var ops = arguments[0], root = arguments[1] || document, out = [];" +
+        "function all(ctx, css) { return Array.prototype.slice.call(ctx.querySelectorAll(css)); }" +
+        "function txt(e) { return e ? (e.innerText || e.textContent || '').trim() : null; }" +
+        "for (var i = 0; i < ops.length; i++) {" +
+        "  var op = ops[i], els = all(root, op.css), r;" +
+        "  switch (op.kind) {" +
+        "    case 'count': r = els.length; break;" +
+        "    case 'elements': r = els; break;" +
+        "    case 'texts': r = els.map(txt); break;" +
+        "    case 'text': r = els.length ? txt(els[0]) : null; break;" +
+        "    case 'attributes': r = els.map(function (e) { return e.getAttribute(op.arg); }); break;" +
+        "    case 'childTexts': r = els.map(function (e) { return txt(e.querySelector(op.arg)); }); break;" +
+        "    case 'childElements': r = els.map(function (e) { return e.querySelector(op.arg); }); break;" +
+        "    default: r = null;" +
+        "  }" +
+        "  out.push(r);" +
+        "}" +
+        "return out;";
+
+    private final WebDriver driver;
+    private final WebElement root;
+    private final List<Result<?>> queued = new ArrayList<>();
+    private boolean ran;
+
+    public DomBatch(WebDriver driver) {
+        this(driver, null);
+    }
+
+    /** Batch whose queries are all scoped to root (null = whole document). */
+    public DomBatch(WebDriver driver, WebElement root) {
+        this.driver = driver;
+        this.root = root;
+    }
+
+    /** Typed handle for one queued query; get() runs the batch on first use. */
+    public final class Result<T> {
+        private final String kind;
+        private final String css;
+        private final String arg;
+        private final Function<Object, T> convert;
+        private T value;
+
+        private Result(String kind, String css, String arg, Function<Object, T> convert) {
+            this.kind = kind;
+            this.css = css;
+            this.arg = arg;
+            this.convert = convert;
+        }
+
+        public T get() {
+            if (!ran) run();
+            return value;
+        }
+    }
+
+    public Result<Integer> count(String css) {
+        return queue("count", css, null, o -> o == null ? 0 : ((Number) o).intValue());
+    }
+
+    public Result<List<WebElement>> elements(String css) {
+        return queue("elements", css, null, DomBatch::elementList);
+    }
+
+    public Result<List<String>> texts(String css) {
+        return queue("texts", css, null, DomBatch::stringList);
+    }
+
+    /** Text of the first match, or null. */
+    public Result<String> text(String css) {
+        return queue("text", css, null, o -> o == null ? null : o.toString());
+    }
+
+    public Result<List<String>> attributes(String css, String attribute) {
+        return queue("attributes", css, attribute, DomBatch::stringList);
+    }
+
+    /** For every parentCss match, the text of its first childCss descendant (null if none). */
+    public Result<List<String>> childTexts(String parentCss, String childCss) {
+        return queue("childTexts", parentCss, childCss, DomBatch::stringList);
+    }
+
+    /** For every parentCss match, its first childCss descendant (null if none). */
+    public Result<List<WebElement>> childElements(String parentCss, String childCss) {
+        return queue("childElements", parentCss, childCss, DomBatch::elementList);
+    }
+
+    /** Send every queued query in one executeScript call. Safe to call again after queueing more. */
+    public DomBatch run() {
+        List<Map<String, String>> ops = new ArrayList<>();
+        for (Result<?> r : queued) {
+            Map<String, String> op = new HashMap<>();
+            op.put("kind", r.kind);
+            op.put("css", r.css);
+            op.put("arg", r.arg);
+            ops.add(op);
+        }
+        List<?> raw = null;
+        try {
+            Object out = ((JavascriptExecutor) driver).executeScript(SCRIPT, ops, root);
+            if (out instanceof List && ((List<?>) out).size() == queued.size()) raw = (List<?>) out;
+        } catch (Exception e) {
+            System.err.println("DEBUG: DomBatch script failed, using element lookups: " + e.getMessage());
+        }
+        // fallback queries on the same selector share one lookup, so child* lists stay aligned with elements()
+        Map<String, List<WebElement>> found = new HashMap<>();
+        for (int i = 0; i < queued.size(); i++) {
+            fill(queued.get(i), raw != null ? raw.get(i) : fallback(queued.get(i), found));
+        }
+        ran = true;
+        return this;
+    }
+
+    private <T> Result<T> queue(String kind, String css, String arg, Function<Object, T> convert) {
+        Result<T> r = new Result<>(kind, css, arg, convert);
+        queued.add(r);
+        ran = false;
+        return r;
+    }
+
+    private static <T> void fill(Result<T> r, Object raw) {
+        r.value = r.convert.apply(raw);
+    }
+
+    // same query answered through WebDriver calls (one lookup per element, so only when the script fails)
+    private Object fallback(Result<?> r, Map<String, List<WebElement>> found) {
+        SearchContext ctx = root != null ? root : driver;
+        List<WebElement> els = found.computeIfAbsent(r.css, css -> Waits.findAll(driver, ctx, By.cssSelector(css)));
+        switch (r.kind) {
+            case "count": return els.size();
+            case "elements": return els;
+            case "text": return els.isEmpty() ? null : els.get(0).getText().trim();
+            default:
+                List<Object> out = new ArrayList<>();
+                for (WebElement e : els) {
+                    if (r.kind.equals("texts")) {
+                        out.add(e.getText().trim());
+                    } else if (r.kind.equals("attributes")) {
+                        out.add(e.getAttribute(r.arg));
+                    } else {
+                        List<WebElement> child = Waits.findAll(driver, e, By.cssSelector(r.arg));
+                        WebElement c = child.isEmpty() ? null : child.get(0);
+                        out.add(r.kind.equals("childTexts") ? (c == null ? null : c.getText().trim()) : c);
+                    }
+                }
+                return out;
+        }
+    }
+
+    private static List<String> stringList(Object o) {
+        if (!(o instanceof List)) return Collections.emptyList();
+        List<String> out = new ArrayList<>();
+        for (Object v : (List<?>) o) out.add(v == null ? null : v.toString());
+        return Collections.unmodifiableList(out);
+    }
+
+    private static List<WebElement> elementList(Object o) {
+        if (!(o instanceof List)) return Collections.emptyList();
+        List<WebElement> out = new ArrayList<>();
+        for (Object v : (List<?>) o) out.add(v instanceof WebElement ? (WebElement) v : null);
+        return Collections.unmodifiableList(out);
+    }
+}
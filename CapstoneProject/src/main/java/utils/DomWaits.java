@@ -0,0 +1,97 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Event-driven waits: instead of re-running WebDriver lookups on a poll tick, one executeAsyncScript call
+ * installs a MutationObserver and returns as soon as the DOM under a root element changes into the wanted state.
+ *
+ * The predicate is a JavaScript expression evaluated in the page with two variables in scope:
+ * root (the element matched by rootCss, or null while it is not rendered) and args (the extra arguments).
+ * It is checked once immediately and again after every mutation inside root, so calling
+ * until(...) after the triggering click cannot miss a change that already happened.
+ *
+ * Timings are reported with the other waits (see Waits).
+ */
+public class DomWaits {
+    private static final long SCRIPT_TIMEOUT_SLACK_MS = 2000;
+
+    // script timeout per driver as last seen/set, so it is only ever raised when a longer budget needs it
+    private static final Map<WebDriver, Duration> scriptTimeouts = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final String SCRIPT =
+        "var rootCss = arguments[0], args = arguments[1], budget = arguments[2];" +
+        "var done = arguments[arguments.length - 1];" +
+        "var start = Date.now(), finished = false, observer = null, timer = null;" +
+        "function findRoot() { return rootCss ? document.querySelector(rootCss) : document.body; }" +
+        "function test(root) { try { return !!(__PREDICATE__); } catch (e) { return false; } }" +
+        "function finish(ok) {" +
+        "  if (finished) return; finished = true;" +
+        "  if (observer) observer.disconnect(); if (timer) clearTimeout(timer);" +
+        "  done({ok: ok, ms: Date.now() - start});" +
+        "}" +
+        "var current = findRoot();" +
+        "if (test(current)) { finish(true); return; }" +
+        // observe the whole document but only re-test for changes inside root (or when root appears / is replaced)
+        "observer = new MutationObserver(function (mutations) {" +
+        "  var root = findRoot();" +
+        "  var relevant = root !== current;" +
+        "  for (var i = 0; !relevant && i < mutations.length; i++) {" +
+        "    relevant = !!root && root.contains(mutations[i].target);" +
+        "  }" +
+        "  current = root;" +
+        "  if (relevant && test(root)) finish(true);" +
+        "});" +
+        "observer.observe(document.documentElement, {childList: true, subtree: true, characterData: true, attributes: true});" +
+        "timer = setTimeout(function () { finish(test(findRoot())); }, budget);";
+
+    /**
+     * Block until predicate holds for the element matched by rootCss (null = document.body), or budget runs out.
+     * Returns true as soon as it holds, false on timeout.
+     */
+    public static boolean until(WebDriver driver, String rootCss, Duration budget, String description, String predicate, Object... args) {
+        JfrEvents.Wait event = new JfrEvents.Wait();
+        event.begin();
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            ensureScriptTimeout(driver, budget);
+            String script = SCRIPT.replace("__PREDICATE__", predicate);
+            List<Object> scriptArgs = Arrays.asList(args);
+            Object result = ((JavascriptExecutor) driver).executeAsyncScript(script, rootCss, scriptArgs, budget.toMillis());
+            if (result instanceof Map) {
+                ok = Boolean.TRUE.equals(((Map<?, ?>) result).get("ok"));
+                if (ok) {
+                    System.out.println("DEBUG: DomWaits '" + description + "' satisfied after "
+                            + ((Map<?, ?>) result).get("ms") + " ms");
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("DEBUG: DomWaits '" + description + "' failed: " + e.getMessage());
+        } finally {
+            Waits.record(event, description, budget, System.nanoTime() - start, !ok);
+        }
+        if (!ok) System.err.println("DEBUG: DomWaits '" + description + "' not satisfied within " + budget.toMillis() + " ms");
+        return ok;
+    }
+
+    private static void ensureScriptTimeout(WebDriver driver, Duration budget) {
+        Duration needed = budget.plusMillis(SCRIPT_TIMEOUT_SLACK_MS);
+        Duration current = scriptTimeouts.get(driver);
+        if (current == null) {
+            current = driver.manage().timeouts().getScriptTimeout();
+            scriptTimeouts.put(driver, current);
+        }
+        if (current.compareTo(needed) >= 0) return;
+        driver.manage().timeouts().scriptTimeout(needed);
+        scriptTimeouts.put(driver, needed);
+    }
+}
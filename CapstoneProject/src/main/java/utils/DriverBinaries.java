@@ -0,0 +1,193 @@
+package utils;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One-time, per-JVM driver binary resolution.
+ * The first resolve() for a browser reads a local manifest (driver.cache.dir/driver-manifest.properties);
+ * if it names an existing binary the path is pinned via webdriver.*.driver and WebDriverManager is never called,
+ * so no version lookups or network access happen. Only a missing/expired entry falls back to
+ * WebDriverManager, and its result is written back to the manifest. Every later call is a map lookup.
+ */
+public class DriverBinaries {
+    private static final Map<String, String> RESOLVED = new ConcurrentHashMap<>();
+    private static final AtomicInteger skippedCalls = new AtomicInteger();
+    // what chromedriver / msedgedriver say when they do not match the installed browser
+    private static final String[] VERSION_MISMATCH = {"only supports", "Current browser version is"};
+
+    /** Resolve (once) and pin the driver binary for the given browser; returns the binary path or null. */
+    public static String resolve(String browser) {
+        String key = normalize(browser);
+        String path = RESOLVED.get(key);
+        if (path != null) {
+            skippedCalls.incrementAndGet();
+            return path;
+        }
+        synchronized (DriverBinaries.class) {
+            path = RESOLVED.get(key);
+            if (path == null) {
+                path = resolveOnce(key);
+                RESOLVED.put(key, path == null ? "" : path);
+            } else {
+                skippedCalls.incrementAndGet();
+            }
+        }
+        return path.isEmpty() ? null : path;
+    }
+
+    /** Whether a failed session start means the driver binary does not match the installed browser. */
+    public static boolean isVersionMismatch(Throwable e) {
+        String message = e.getMessage();
+        if (message == null) return false;
+        for (String marker : VERSION_MISMATCH) {
+            if (message.contains(marker)) return true;
+        }
+        return false;
+    }
+
+    /** driver.offline=true: never go to the network, and never drop what the manifest has cached. */
+    public static boolean isOffline() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("driver.offline", "false"));
+    }
+
+    /**
+     * Drop a manifest entry that turned out to be stale (e.g. browser upgraded) so the next resolve() redoes it.
+     * Ignored offline, where nothing could be resolved in its place.
+     */
+    public static synchronized void invalidate(String browser) {
+        String key = normalize(browser);
+        if (isOffline()) {
+            System.err.println("DEBUG: driver.offline=true, keeping the manifest entry for " + key);
+            return;
+        }
+        RESOLVED.remove(key);
+        Properties manifest = loadManifest();
+        manifest.remove(key + ".path");
+        manifest.remove(key + ".version");
+        manifest.remove(key + ".resolvedAt");
+        saveManifest(manifest);
+        System.clearProperty(systemProperty(key));
+        System.out.println("DEBUG: driver manifest entry for " + key + " invalidated");
+    }
+
+    /** How many resolve() calls were answered from the in-JVM cache instead of doing any work. */
+    public static int getSkippedCalls() {
+        return skippedCalls.get();
+    }
+
+    private static String resolveOnce(String key) {
+        long start = System.nanoTime();
+        Properties manifest = loadManifest();
+        String cached = manifest.getProperty(key + ".path");
+        long resolvedAt = parseLong(manifest.getProperty(key + ".resolvedAt"), 0);
+        long ttlMs = TimeUnit.HOURS.toMillis(ConfigReader.getIntProperty("driver.cache.ttlHours", 24 * 7));
+        boolean offline = isOffline();
+        boolean fresh = offline || System.currentTimeMillis() - resolvedAt < ttlMs;
+
+        if (cached != null && fresh && Files.isExecutable(Paths.get(cached))) {
+            System.setProperty(systemProperty(key), cached);
+            long tookMs = (System.nanoTime() - start) / 1_000_000;
+            long lastFullMs = parseLong(manifest.getProperty(key + ".resolveMs"), -1);
+            System.out.println("DEBUG: " + key + "driver pinned from manifest in " + tookMs + " ms (" + cached + ")"
+                    + (lastFullMs >= 0 ? ", saved ~" + (lastFullMs - tookMs) + " ms vs. a full resolution" : ""));
+            return cached;
+        }
+
+        if (offline) {
+            // nothing cached and no network allowed: leave it to webdriver.*.driver / PATH
+            System.err.println("DEBUG: driver.offline=true but no cached " + key + "driver in " + manifestFile()
+                    + "; relying on " + systemProperty(key) + " or PATH");
+            return System.getProperty(systemProperty(key));
+        }
+
+        WebDriverManager wdm = manager(key);
+        wdm.setup();
+        String path = wdm.getDownloadedDriverPath();
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
+        if (path != null) {
+            manifest.setProperty(key + ".path", path);
+            manifest.setProperty(key + ".version", String.valueOf(wdm.getDownloadedDriverVersion()));
+            manifest.setProperty(key + ".resolvedAt", String.valueOf(System.currentTimeMillis()));
+            manifest.setProperty(key + ".resolveMs", String.valueOf(tookMs));
+            saveManifest(manifest);
+        }
+        System.out.println("DEBUG: " + key + "driver resolved via WebDriverManager in " + tookMs + " ms (" + path + ")");
+        return path;
+    }
+
+    private static WebDriverManager manager(String key) {
+        switch (key) {
+            case "gecko": return WebDriverManager.firefoxdriver();
+            case "msedge": return WebDriverManager.edgedriver();
+            default: return WebDriverManager.chromedriver();
+        }
+    }
+
+    private static String normalize(String browser) {
+        String b = browser == null ? "chrome" : browser.trim().toLowerCase();
+        if (b.equals("firefox") || b.equals("gecko")) return "gecko";
+        if (b.equals("edge") || b.equals("msedge")) return "msedge";
+        return "chrome";
+    }
+
+    private static String systemProperty(String key) {
+        switch (key) {
+            case "gecko": return "webdriver.gecko.driver";
+            case "msedge": return "webdriver.edge.driver";
+            default: return "webdriver.chrome.driver";
+        }
+    }
+
+    private static Path manifestFile() {
+        String dir = ConfigReader.getProperty("driver.cache.dir",
+                Paths.get(System.getProperty("user.home"), ".cache", "selenium").toString());
+        return Paths.get(dir, "driver-manifest.properties");
+    }
+
+    private static Properties loadManifest() {
+        Properties p = new Properties();
+        Path file = manifestFile();
+        if (Files.exists(file)) {
+            try (InputStream in = Files.newInputStream(file)) {
+                p.load(in);
+            } catch (Exception e) {
+                System.err.println("DEBUG: could not read driver manifest " + file + ": " + e.getMessage());
+            }
+        }
+        return p;
+    }
+
+    private static void saveManifest(Properties p) {
+        Path file = manifestFile();
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                p.store(out, "resolved driver binaries");
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not write driver manifest " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static long parseLong(String value, long fallback) {
+        try {
+            return value == null ? fallback : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
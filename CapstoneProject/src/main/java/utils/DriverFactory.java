@@ -1,56 +1,138 @@
 package utils;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.Dimension;
 import org.openqa.selenium.firefox.FirefoxDriver;
+import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.logging.LogType;
 import org.openqa.selenium.logging.LoggingPreferences;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Robust DriverFactory that uses WebDriverManager and stable ChromeOptions.
  * Replace your existing DriverFactory with this to reduce blank-page and CDP warnings.
+ *
+ * Drivers are thread-confined: each TestNG worker thread gets its own browser, so
+ * parallel="methods" / parallel="classes" runs never share or quit each other's session.
  */
 public class DriverFactory {
-    private static WebDriver driver;   // shared singleton driver
+    // one driver per test thread
+    private static final ThreadLocal<WebDriver> DRIVER = new ThreadLocal<>();
+    // every live driver across threads, so a suite-level cleanup can quit stragglers
+    private static final Set<WebDriver> ACTIVE_DRIVERS = ConcurrentHashMap.newKeySet();
+    // warm Chrome sessions, created on first use when driver.mode=pool
+    private static volatile DriverPool pool;
 
-    // Default implicit wait seconds (adjust if needed)
+    // Default implicit wait seconds (adjust if needed); Waits sets zero instead when wait.mode=explicit
     private static final int IMPLICIT_WAIT_SECONDS = 5;
     private static final int PAGE_LOAD_TIMEOUT_SECONDS = 60;
+    // WebDriver's own default, restored explicitly so a pooled session never keeps a test's value
+    private static final int SCRIPT_TIMEOUT_SECONDS = 30;
+
+    // fixed viewport for the lean (headless) profile; headless has no screen to maximize to
+    private static final int LEAN_WIDTH = 1366;
+    private static final int LEAN_HEIGHT = 768;
+
+    static {
+        // safety net for runs that die before @AfterMethod / onFinish get a chance to clean up
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverFactory::quitAllDrivers, "driver-cleanup"));
+    }
+
+    /**
+     * Number of parallel test threads (and therefore browsers) the suite should use.
+     * Set "parallel.threads" in config.properties or -Dparallel.threads; defaults to the CPU count.
+     */
+    public static int getThreadCount() {
+        int threads = ConfigReader.getIntProperty("parallel.threads", Runtime.getRuntime().availableProcessors());
+        return Math.max(1, threads);
+    }
+
+    /**
+     * "pool" keeps pool.size pre-started Chrome sessions and resets them between tests
+     * instead of paying a cold start per test; anything else launches a fresh browser per initDriver.
+     */
+    public static boolean isPooled() {
+        return "pool".equalsIgnoreCase(ConfigReader.getProperty("driver.mode", "fresh"));
+    }
+
+    /**
+     * Launch profile from "browser.profile": "full" (default) is a headed, maximized browser;
+     * "lean" is new-headless with a fixed viewport and background features switched off,
+     * so many more browsers fit on one CI agent.
+     */
+    public static boolean isLeanProfile() {
+        return "lean".equalsIgnoreCase(ConfigReader.getProperty("browser.profile", "full"));
+    }
+
+    // images are kept by default; set browser.images=false when no assertion or screenshot needs them
+    private static boolean imagesEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("browser.images", "true"));
+    }
+
+    private static DriverPool getPool() {
+        if (pool == null) {
+            synchronized (DriverFactory.class) {
+                if (pool == null) {
+                    int size = ConfigReader.getIntProperty("pool.size", getThreadCount());
+                    int maxLeases = ConfigReader.getIntProperty("pool.maxLeases", 20);
+                    pool = new DriverPool(() -> createChromeDriver(null), size, maxLeases);
+                }
+            }
+        }
+        return pool;
+    }
 
     /**
      * Initialize a WebDriver for the requested browser.
      * Supported browsers: "chrome", "firefox"
      */
     public static WebDriver initDriver(String browser) {
-        if (driver == null) {
-            // Reduce Selenium noisy logs
-            Logger.getLogger("org.openqa.selenium").setLevel(Level.OFF);
-            Logger.getLogger("org.openqa.selenium.remote").setLevel(Level.OFF);
-
-            if (browser == null || browser.isEmpty()) browser = "chrome";
-
-            if (browser.equalsIgnoreCase("chrome")) {
-                driver = createChromeDriver(null);
-            } else if (browser.equalsIgnoreCase("firefox")) {
-                WebDriverManager.firefoxdriver().setup();
-                driver = new FirefoxDriver();
-                driver.manage().window().maximize();
-                driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(IMPLICIT_WAIT_SECONDS));
-                driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(PAGE_LOAD_TIMEOUT_SECONDS));
-            } else {
-                throw new IllegalArgumentException("Browser not supported: " + browser);
-            }
+        WebDriver driver = DRIVER.get();
+        // a driver quit from another thread (quitDriver(WebDriver), quitAllDrivers) is gone for this thread too
+        if (driver == null || !ACTIVE_DRIVERS.contains(driver)) {
+            driver = newDriver(browser);
+            DRIVER.set(driver);
+        }
+        return driver;
+    }
+
+    /**
+     * A driver that belongs to the caller rather than to the calling thread (e.g. one per data-provider
+     * shard, closed from @AfterClass). Pooled like initDriver's, quit with quitDriver(WebDriver) or at suite end.
+     */
+    public static WebDriver newDriver(String browser) {
+        // Reduce Selenium noisy logs
+        Logger.getLogger("org.openqa.selenium").setLevel(Level.OFF);
+        Logger.getLogger("org.openqa.selenium.remote").setLevel(Level.OFF);
+
+        if (browser == null || browser.isEmpty()) browser = "chrome";
+
+        WebDriver driver;
+        if (browser.equalsIgnoreCase("chrome")) {
+            driver = isPooled() ? getPool().acquire() : createChromeDriver(null);
+        } else if (browser.equalsIgnoreCase("firefox")) {
+            driver = createFirefoxDriver();
+        } else {
+            throw new IllegalArgumentException("Browser not supported: " + browser);
         }
+        // trace.commands=true: hand out a traced view of the (possibly pooled) session
+        driver = CommandTrace.decorate(driver);
+        ACTIVE_DRIVERS.add(driver);
         return driver;
     }
 
@@ -66,8 +148,12 @@ public class DriverFactory {
             System.err.println("Could not create download dir: " + e.getMessage());
         }
 
+        // a download-enabled browser replaces whatever this thread was using
+        quitDriver();
+
         // create Chrome with download prefs
-        driver = createChromeDriver(downloadDirAbsolutePath);
+        WebDriver driver = CommandTrace.decorate(createChromeDriver(downloadDirAbsolutePath));
+        register(driver);
 
         return driver;
     }
@@ -77,8 +163,21 @@ public class DriverFactory {
      * If downloadDir is null, no download prefs are set.
      */
     private static WebDriver createChromeDriver(String downloadDir) {
-        // ensure chromedriver binary matches local chrome
-        WebDriverManager.chromedriver().setup();
+        // binary path is resolved once per JVM (cached manifest); later calls are free
+        DriverBinaries.resolve("chrome");
+        try {
+            return launchChrome(downloadDir);
+        } catch (SessionNotCreatedException e) {
+            // re-resolve once, and only when the cached chromedriver no longer matches the installed Chrome;
+            // a start-up failure under load or a bad flag is not fixed by another driver, and offline runs keep theirs
+            if (DriverBinaries.isOffline() || !DriverBinaries.isVersionMismatch(e)) throw e;
+            DriverBinaries.invalidate("chrome");
+            DriverBinaries.resolve("chrome");
+            return launchChrome(downloadDir);
+        }
+    }
+
+    private static WebDriver launchChrome(String downloadDir) {
 
         ChromeOptions options = new ChromeOptions();
 
@@ -101,35 +200,169 @@ public class DriverFactory {
         options.setCapability("goog:loggingPrefs", logPrefs);
         */
 
+        boolean lean = isLeanProfile();
+        Map<String, Object> prefs = new HashMap<>();
+        if (lean) {
+            options.addArguments("--headless=new");
+            options.addArguments("--window-size=" + LEAN_WIDTH + "," + LEAN_HEIGHT);
+            // no background traffic or work the tests never look at
+            options.addArguments("--disable-background-networking");
+            options.addArguments("--disable-component-update");
+            options.addArguments("--disable-default-apps");
+            options.addArguments("--disable-sync");
+            options.addArguments("--disable-client-side-phishing-detection");
+            options.addArguments("--disable-domain-reliability");
+            options.addArguments("--disable-breakpad");
+            options.addArguments("--disable-features=Translate,OptimizationHints,MediaRouter,InterestFeedContentSuggestions,AutofillServerCommunication");
+            options.addArguments("--metrics-recording-only");
+            options.addArguments("--no-first-run");
+            options.addArguments("--no-default-browser-check");
+            options.addArguments("--mute-audio");
+            options.addArguments("--hide-scrollbars");
+            if (!imagesEnabled()) {
+                options.addArguments("--blink-settings=imagesEnabled=false");
+                prefs.put("profile.managed_default_content_settings.images", 2);
+            }
+        }
+
         // Download prefs
         if (downloadDir != null && !downloadDir.isEmpty()) {
-            Map<String, Object> prefs = new HashMap<>();
             prefs.put("download.default_directory", downloadDir);
             prefs.put("download.prompt_for_download", false);
             prefs.put("download.directory_upgrade", true);
             prefs.put("plugins.always_open_pdf_externally", true); // force PDF download instead of opening in viewer
-            options.setExperimentalOption("prefs", prefs);
         }
+        if (!prefs.isEmpty()) options.setExperimentalOption("prefs", prefs);
 
         // Create driver
-        WebDriver localDriver = new ChromeDriver(options);
+        long start = System.nanoTime();
+        WebDriver localDriver = launch("chrome", lean, () -> new ChromeDriver(options));
+        LaunchStats.record(lean ? "lean" : "full", localDriver, (System.nanoTime() - start) / 1_000_000);
+
+        // http.mode=record|replay: route every response through the on-disk archive (before the first navigation)
+        HttpRecorder.attach(localDriver);
 
         // Timeouts & window
-        localDriver.manage().timeouts().implicitlyWait(Duration.ofSeconds(IMPLICIT_WAIT_SECONDS));
-        localDriver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(PAGE_LOAD_TIMEOUT_SECONDS));
-        localDriver.manage().window().maximize();
+        applyDefaultTimeouts(localDriver);
+        if (!lean) localDriver.manage().window().maximize();
+
+        return localDriver;
+    }
+
+    // browser start-up as a JFR DriverLaunch event, failed launches included
+    private static WebDriver launch(String browser, boolean lean, Supplier<WebDriver> starter) {
+        JfrEvents.DriverLaunch event = new JfrEvents.DriverLaunch();
+        event.begin();
+        try {
+            WebDriver driver = starter.get();
+            event.started = true;
+            return driver;
+        } finally {
+            event.browser = browser;
+            event.profile = lean ? "lean" : "full";
+            event.commit();
+        }
+    }
+
+    /** Firefox counterpart of createChromeDriver, honouring the same launch profile. */
+    private static WebDriver createFirefoxDriver() {
+        DriverBinaries.resolve("firefox");
 
+        FirefoxOptions options = new FirefoxOptions();
+        options.setAcceptInsecureCerts(true);
+
+        boolean lean = isLeanProfile();
+        if (lean) {
+            options.addArguments("-headless");
+            options.addPreference("app.update.enabled", false);
+            options.addPreference("browser.shell.checkDefaultBrowser", false);
+            options.addPreference("datareporting.policy.dataSubmissionEnabled", false);
+            options.addPreference("toolkit.telemetry.enabled", false);
+            options.addPreference("extensions.update.enabled", false);
+            options.addPreference("browser.safebrowsing.malware.enabled", false);
+            options.addPreference("browser.safebrowsing.phishing.enabled", false);
+            options.addPreference("media.autoplay.default", 5);
+            if (!imagesEnabled()) options.addPreference("permissions.default.image", 2);
+        }
+
+        long start = System.nanoTime();
+        WebDriver localDriver = launch("firefox", lean, () -> new FirefoxDriver(options));
+        LaunchStats.record(lean ? "lean" : "full", localDriver, (System.nanoTime() - start) / 1_000_000);
+
+        applyDefaultWindow(localDriver);
+        applyDefaultTimeouts(localDriver);
         return localDriver;
     }
 
+    /** Window of the launch profile: maximized, or the fixed lean viewport. For callers that rely on the grid layout. */
+    public static void applyDefaultWindow(WebDriver driver) {
+        if (isLeanProfile()) {
+            driver.manage().window().setSize(new Dimension(LEAN_WIDTH, LEAN_HEIGHT));
+        } else {
+            driver.manage().window().maximize();
+        }
+    }
+
+    /** Implicit, page-load and script timeouts every new session starts with; DriverPool puts them back on release. */
+    static void applyDefaultTimeouts(WebDriver driver) {
+        Waits.applyImplicitWait(driver, IMPLICIT_WAIT_SECONDS);
+        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(PAGE_LOAD_TIMEOUT_SECONDS));
+        driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(SCRIPT_TIMEOUT_SECONDS));
+    }
+
+    private static void register(WebDriver driver) {
+        DRIVER.set(driver);
+        ACTIVE_DRIVERS.add(driver);
+    }
+
+    /** Driver owned by the calling thread, or null if this thread has not created one. */
     public static WebDriver getDriver() {
-        return driver;
+        return DRIVER.get();
     }
 
+    /**
+     * Quit the calling thread's driver only; other threads' browsers are untouched.
+     * Pooled drivers are reset and handed back to the pool rather than quit.
+     */
     public static void quitDriver() {
+        WebDriver driver = DRIVER.get();
         if (driver != null) {
-            try { driver.quit(); } catch (Exception ignored) {}
-            driver = null;
+            DRIVER.remove();
+            quitDriver(driver);
+        }
+    }
+
+    /**
+     * Quit (or hand back to the pool) a driver from initDriver or newDriver, from any thread.
+     * A driver that was already quit is ignored.
+     */
+    public static void quitDriver(WebDriver driver) {
+        if (driver == null || !ACTIVE_DRIVERS.remove(driver)) return;
+        WebDriver raw = CommandTrace.unwrap(driver);
+        DriverPool p = pool;
+        if (p != null && p.owns(raw)) {
+            p.release(raw);
+        } else {
+            HttpRecorder.detach(raw);
+            try { raw.quit(); } catch (Exception ignored) {}
+        }
+    }
+
+    /** Quit every driver still alive on any thread (suite teardown / JVM shutdown). */
+    public static void quitAllDrivers() {
+        List<WebDriver> remaining = new ArrayList<>(ACTIVE_DRIVERS);
+        ACTIVE_DRIVERS.clear();
+        for (WebDriver d : remaining) {
+            WebDriver raw = CommandTrace.unwrap(d);
+            HttpRecorder.detach(raw);
+            try { raw.quit(); } catch (Exception ignored) {}
+        }
+        DRIVER.remove();
+        synchronized (DriverFactory.class) {
+            if (pool != null) {
+                pool.shutdown();
+                pool = null;
+            }
         }
     }
 }
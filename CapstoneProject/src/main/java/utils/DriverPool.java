@@ -0,0 +1,200 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pool of pre-started browser sessions.
+ * acquire() hands out a warm, health-checked driver; release() wipes its state
+ * (cookies, local/session storage, extra windows, changed timeouts) and parks it on about:blank instead of quitting.
+ * A session is recycled (quit + replaced in the background) after maxLeases uses so memory stays bounded.
+ */
+public class DriverPool {
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 120;
+
+    private final Supplier<WebDriver> factory;
+    private final int size;
+    private final int maxLeases;
+
+    private final BlockingQueue<WebDriver> idle = new LinkedBlockingQueue<>();
+    private final Map<WebDriver, Integer> leaseCounts = new ConcurrentHashMap<>();
+    private final Set<WebDriver> leased = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger live = new AtomicInteger();
+    private final ExecutorService starter;
+    private volatile boolean closed;
+
+    public DriverPool(Supplier<WebDriver> factory, int size, int maxLeases) {
+        this.factory = factory;
+        this.size = Math.max(1, size);
+        this.maxLeases = Math.max(1, maxLeases);
+        this.starter = Executors.newFixedThreadPool(this.size, r -> {
+            Thread t = new Thread(r, "driver-pool-starter");
+            t.setDaemon(true);
+            return t;
+        });
+        System.out.println("DEBUG: DriverPool warming " + this.size + " sessions (recycle after " + this.maxLeases + " leases)");
+        for (int i = 0; i < this.size; i++) startAsync();
+    }
+
+    /** Lease a warm driver, waiting for one to free up if all are in use. */
+    public WebDriver acquire() {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(ACQUIRE_TIMEOUT_SECONDS);
+        while (!closed) {
+            WebDriver driver;
+            try {
+                driver = idle.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a pooled driver", e);
+            }
+            if (driver == null) {
+                throw new RuntimeException("No pooled driver became available within " + ACQUIRE_TIMEOUT_SECONDS + "s");
+            }
+            if (isHealthy(driver)) {
+                leased.add(driver);
+                leaseCounts.merge(driver, 1, Integer::sum);
+                return driver;
+            }
+            System.err.println("DEBUG: DriverPool discarding unhealthy session");
+            discard(driver);
+        }
+        throw new IllegalStateException("DriverPool is shut down");
+    }
+
+    public boolean owns(WebDriver driver) {
+        return leased.contains(driver);
+    }
+
+    /** Return a leased driver: reset it for the next test, or recycle it if it is worn out or broken. */
+    public void release(WebDriver driver) {
+        if (!leased.remove(driver)) return;
+        if (closed) {
+            discard(driver);
+            return;
+        }
+        int leases = leaseCounts.getOrDefault(driver, 0);
+        if (leases >= maxLeases) {
+            System.out.println("DEBUG: DriverPool recycling session after " + leases + " leases");
+            discard(driver);
+            return;
+        }
+        if (reset(driver)) {
+            idle.offer(driver);
+        } else {
+            System.err.println("DEBUG: DriverPool reset failed, replacing session");
+            discard(driver);
+        }
+    }
+
+    /** Quit every pooled session, leased or idle. */
+    public void shutdown() {
+        closed = true;
+        starter.shutdownNow();
+        List<WebDriver> all = new ArrayList<>(idle);
+        idle.clear();
+        all.addAll(leased);
+        leased.clear();
+        for (WebDriver d : all) {
+            HttpRecorder.detach(d);
+            try { d.quit(); } catch (Exception ignored) {}
+        }
+        leaseCounts.clear();
+    }
+
+    private void startAsync() {
+        if (closed) return;
+        live.incrementAndGet();
+        starter.submit(() -> {
+            try {
+                WebDriver driver = factory.get();
+                if (closed) {
+                    HttpRecorder.detach(driver);
+                    driver.quit();
+                } else {
+                    leaseCounts.put(driver, 0);
+                    idle.offer(driver);
+                }
+            } catch (Exception e) {
+                live.decrementAndGet();
+                System.err.println("DEBUG: DriverPool could not start a session: " + e.getMessage());
+            }
+        });
+    }
+
+    private void discard(WebDriver driver) {
+        leaseCounts.remove(driver);
+        live.decrementAndGet();
+        HttpRecorder.detach(driver);
+        try { driver.quit(); } catch (Exception ignored) {}
+        // keep the pool at full strength
+        if (!closed && live.get() < size) startAsync();
+    }
+
+    private boolean isHealthy(WebDriver driver) {
+        try {
+            Object ok = ((JavascriptExecutor) driver).executeScript("return 1;");
+            return ok != null && driver.getWindowHandles().size() > 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void clearStorage(WebDriver driver) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "try { window.localStorage.clear(); } catch (e) {}"
+                    + "try { window.sessionStorage.clear(); } catch (e) {}");
+        } catch (Exception ignored) {}
+    }
+
+    /** Wipe everything a test could have left behind, then park the session on about:blank. */
+    private boolean reset(WebDriver driver) {
+        try {
+            // close popups / extra tabs, keep the first window
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            for (int i = 1; i < handles.size(); i++) {
+                driver.switchTo().window(handles.get(i));
+                driver.close();
+            }
+            driver.switchTo().window(handles.get(0));
+
+            // storage is per-origin, so clear it before leaving the page; if the test ended somewhere else
+            // (about:blank, an error page, another site) go back to the app's origin so its cart does not carry over
+            clearStorage(driver);
+            String app = SessionCache.origin(ConfigReader.getProperty("url", ""));
+            if (!app.isEmpty() && !app.equals(SessionCache.origin(driver.getCurrentUrl()))) {
+                driver.get(app + "/");
+                clearStorage(driver);
+            }
+
+            if (driver instanceof HasCdp) {
+                // clears cookies for every domain, not just the current one
+                ((HasCdp) driver).executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            } else {
+                driver.manage().deleteAllCookies();
+            }
+
+            driver.get("about:blank");
+
+            // a test may have changed implicit / page-load / script timeouts; the next borrower gets the defaults
+            DriverFactory.applyDefaultTimeouts(driver);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+}
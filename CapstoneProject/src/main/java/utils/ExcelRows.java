@@ -0,0 +1,412 @@
+package utils;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rows of one .xlsx sheet, read lazily so TestNG data providers can return them directly:
+ *
+ *   @DataProvider public Iterator<Object[]> data() { return ExcelRows.iterate("testdata/Search.xlsx", "Search", 0); }
+ *
+ * The sheet XML is pulled with StAX straight out of the zip (XSSFReader), so memory is the shared-strings table
+ * plus one row however long the sheet is. The first row is the header; every row is padded to its width. Cells
+ * come back as strings the way Excel shows them in General format ("" for empty cells); blank rows are skipped.
+ *
+ * A sheet read to the end is also written to target/xlsx-cache/<file hash>-<sheet>.bin as it goes; later runs
+ * with an unchanged file stream that instead, skipping the unzip and XML parse altogether.
+ *
+ * A reader closes itself after its last row. One that TestNG stops pulling early (the provider threw, the run
+ * was skipped or aborted) stays open until closeAll(), which listeners.DataRowListener calls when the suite
+ * finishes; that also deletes its half-written cache file.
+ */
+public class ExcelRows {
+    private static final Path CACHE_DIR = Paths.get("target", "xlsx-cache");
+    private static final int CACHE_VERSION = 1;
+    private static final int END_OF_ROWS = -1;
+    // readers handed out and not yet read to the end
+    private static final Set<Rows> open = ConcurrentHashMap.newKeySet();
+
+    /** Data rows (header skipped) of sheetName, limited to the given 0-based columns (all columns if none given). */
+    public static Iterator<Object[]> iterate(String resource, String sheetName, int... columns) {
+        Iterator<String[]> rows = open(resource, sheetName);
+        if (rows.hasNext()) rows.next();
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                String[] row = rows.next();
+                if (columns.length == 0) return row;
+                Object[] picked = new Object[columns.length];
+                for (int i = 0; i < columns.length; i++) picked[i] = columns[i] < row.length ? row[columns[i]] : "";
+                return picked;
+            }
+        };
+    }
+
+    /** All rows of sheetName, header first: from the cache when the file is unchanged, else parsed (and cached). */
+    static Iterator<String[]> open(String resource, String sheetName) {
+        try {
+            Path file = locate(resource);
+            Path cache = CACHE_DIR.resolve(hash(file) + "-" + sheetName.replaceAll("[^A-Za-z0-9_\\-]", "_") + ".bin");
+            if (Files.isRegularFile(cache)) {
+                CachedRows cached = CachedRows.open(cache);
+                if (cached != null) return track(cached);
+            }
+            return track(new SheetRows(file, sheetName, cache));
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to load Excel: " + resource + " [" + sheetName + "]", e);
+        }
+    }
+
+    /** Close every reader that was not read to the end (partial cache files are deleted); returns how many. */
+    public static int closeAll() {
+        int closed = 0;
+        for (Rows rows : new ArrayList<>(open)) {
+            rows.closeQuietly();
+            closed++;
+        }
+        return closed;
+    }
+
+    private static Rows track(Rows rows) {
+        open.add(rows);
+        return rows;
+    }
+
+    // classpath resource as a file (OPCPackage reads a File entry by entry; a stream would be buffered whole)
+    private static Path locate(String resource) throws Exception {
+        URL url = ExcelRows.class.getClassLoader().getResource(resource);
+        if (url == null) {
+            Path path = Paths.get(resource);
+            if (Files.isRegularFile(path)) return path;
+            throw new IOException("not found on the classpath or disk");
+        }
+        if ("file".equals(url.getProtocol())) return Paths.get(url.toURI());
+        Path copy = Files.createTempFile("excel-rows", ".xlsx");
+        copy.toFile().deleteOnExit();
+        try (InputStream in = url.openStream()) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return copy;
+    }
+
+    private static String hash(Path file) throws Exception {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int n;
+            while ((n = in.read(buf)) > 0) md.update(buf, 0, n);
+        }
+        StringBuilder sb = new StringBuilder(32);
+        byte[] digest = md.digest();
+        for (int i = 0; i < 16; i++) sb.append(String.format("%02x", digest[i]));
+        return sb.toString();
+    }
+
+    /** Lookahead iterator over parsed rows; closes its source when the last row has been handed out. */
+    private abstract static class Rows implements Iterator<String[]>, Closeable {
+        private String[] pending;
+        private boolean done;
+
+        abstract String[] read() throws Exception;
+
+        @Override
+        public boolean hasNext() {
+            if (pending != null) return true;
+            if (done) return false;
+            try {
+                pending = read();
+            } catch (Exception e) {
+                closeQuietly();
+                throw new RuntimeException("Failed to read Excel rows: " + e.getMessage(), e);
+            }
+            if (pending == null) {
+                done = true;
+                closeQuietly();
+            }
+            return pending != null;
+        }
+
+        @Override
+        public String[] next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            String[] row = pending;
+            pending = null;
+            return row;
+        }
+
+        void closeQuietly() {
+            open.remove(this);
+            done = true;
+            try {
+                close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /** Rows from a cache file: version, then per row a cell count and length-prefixed UTF-8 cells, then -1. */
+    private static final class CachedRows extends Rows {
+        private final DataInputStream in;
+
+        private CachedRows(DataInputStream in) {
+            this.in = in;
+        }
+
+        static CachedRows open(Path cache) {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(cache), 64 * 1024));
+                if (in.readInt() == CACHE_VERSION) return new CachedRows(in);
+                in.close();
+            } catch (IOException e) {
+                System.err.println("DEBUG: ignoring unreadable Excel cache " + cache + ": " + e.getMessage());
+            }
+            return null;
+        }
+
+        @Override
+        String[] read() throws IOException {
+            int cells = in.readInt();
+            if (cells == END_OF_ROWS) return null;
+            String[] row = new String[cells];
+            for (int i = 0; i < cells; i++) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                row[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /** Rows pulled from the sheet XML, written through to the cache; the cache only appears once the sheet is read to the end. */
+    private static final class SheetRows extends Rows {
+        private final OPCPackage pkg;
+        private final ReadOnlySharedStringsTable strings;
+        private final InputStream sheet;
+        private final XMLStreamReader xml;
+        private final Path cache;
+        private Path cacheTmp;
+        private DataOutputStream cacheOut;
+        private int width = -1;
+
+        SheetRows(Path file, String sheetName, Path cache) throws Exception {
+            this.cache = cache;
+            pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            try {
+                XSSFReader reader = new XSSFReader(pkg);
+                strings = new ReadOnlySharedStringsTable(pkg, false);
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+                InputStream found = null;
+                while (sheets.hasNext()) {
+                    InputStream s = sheets.next();
+                    if (found == null && sheets.getSheetName().equalsIgnoreCase(sheetName)) {
+                        found = s;
+                    } else {
+                        s.close();
+                    }
+                }
+                if (found == null) throw new IOException("no sheet named '" + sheetName + "'");
+                sheet = found;
+                xml = XMLHelper.newXMLInputFactory().createXMLStreamReader(sheet);
+            } catch (Exception e) {
+                pkg.revert();
+                throw e;
+            }
+            openCache();
+        }
+
+        private void openCache() {
+            try {
+                Files.createDirectories(CACHE_DIR);
+                cacheTmp = Files.createTempFile(CACHE_DIR, cache.getFileName().toString(), ".tmp");
+                cacheTmp.toFile().deleteOnExit();
+                cacheOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(cacheTmp), 64 * 1024));
+                cacheOut.writeInt(CACHE_VERSION);
+            } catch (IOException e) {
+                System.err.println("DEBUG: Excel rows will not be cached: " + e.getMessage());
+                cacheOut = null;
+            }
+        }
+
+        @Override
+        String[] read() throws Exception {
+            String[] row;
+            do {
+                row = nextRow();
+            } while (row != null && isBlank(row));
+            if (row == null) {
+                finishCache();
+                return null;
+            }
+            // the header fixes the width, so every row has the same number of parameters
+            if (width < 0) width = row.length;
+            if (row.length < width) {
+                String[] padded = new String[width];
+                System.arraycopy(row, 0, padded, 0, row.length);
+                for (int i = row.length; i < width; i++) padded[i] = "";
+                row = padded;
+            }
+            cache(row);
+            return row;
+        }
+
+        private String[] nextRow() throws XMLStreamException {
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "row".equals(xml.getLocalName())) return parseRow();
+                if (event == XMLStreamConstants.END_ELEMENT && "sheetData".equals(xml.getLocalName())) return null;
+            }
+            return null;
+        }
+
+        private String[] parseRow() throws XMLStreamException {
+            List<String> cells = new ArrayList<>();
+            int column = 0;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT && "c".equals(xml.getLocalName())) {
+                    String ref = xml.getAttributeValue(null, "r");
+                    if (ref != null) column = new CellReference(ref).getCol();
+                    String value = cellValue(xml.getAttributeValue(null, "t"));
+                    while (cells.size() < column) cells.add("");
+                    if (column < cells.size()) cells.set(column, value);
+                    else cells.add(value);
+                    column++;
+                } else if (event == XMLStreamConstants.END_ELEMENT && "row".equals(xml.getLocalName())) {
+                    break;
+                }
+            }
+            return cells.toArray(new String[0]);
+        }
+
+        // reads up to </c>; formulas (<f>) are skipped in favour of their cached value
+        private String cellValue(String type) throws XMLStreamException {
+            String value = null;
+            StringBuilder inline = null;
+            while (xml.hasNext()) {
+                int event = xml.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = xml.getLocalName();
+                    if ("v".equals(name)) {
+                        value = xml.getElementText();
+                    } else if ("t".equals(name) && "inlineStr".equals(type)) {
+                        if (inline == null) inline = new StringBuilder();
+                        inline.append(xml.getElementText());
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && "c".equals(xml.getLocalName())) {
+                    break;
+                }
+            }
+            if (inline != null) return inline.toString();
+            if (value == null) return "";
+            switch (type == null ? "n" : type) {
+                case "s":
+                    return strings.getItemAt(Integer.parseInt(value.trim())).getString();
+                case "b":
+                    return "1".equals(value.trim()) ? "TRUE" : "FALSE";
+                case "str":
+                case "e":
+                    return value;
+                default:
+                    try {
+                        return NumberToTextConverter.toText(Double.parseDouble(value));
+                    } catch (NumberFormatException e) {
+                        return value;
+                    }
+            }
+        }
+
+        private static boolean isBlank(String[] row) {
+            for (String cell : row) {
+                if (!cell.trim().isEmpty()) return false;
+            }
+            return true;
+        }
+
+        private void cache(String[] row) {
+            if (cacheOut == null) return;
+            try {
+                cacheOut.writeInt(row.length);
+                for (String cell : row) {
+                    byte[] bytes = cell.getBytes(StandardCharsets.UTF_8);
+                    cacheOut.writeInt(bytes.length);
+                    cacheOut.write(bytes);
+                }
+            } catch (IOException e) {
+                System.err.println("DEBUG: Excel rows will not be cached: " + e.getMessage());
+                dropCache();
+            }
+        }
+
+        private void finishCache() {
+            if (cacheOut == null) return;
+            try {
+                cacheOut.writeInt(END_OF_ROWS);
+                cacheOut.close();
+                cacheOut = null;
+                Files.move(cacheTmp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("DEBUG: could not write Excel cache " + cache + ": " + e.getMessage());
+                dropCache();
+            }
+        }
+
+        private void dropCache() {
+            try {
+                if (cacheOut != null) cacheOut.close();
+                Files.deleteIfExists(cacheTmp);
+            } catch (IOException ignored) {
+            }
+            cacheOut = null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            dropCache();
+            try {
+                xml.close();
+            } catch (XMLStreamException ignored) {
+            }
+            sheet.close();
+            pkg.revert();
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package utils;
+
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * HTTP record/replay for browser sessions via the DevTools Fetch domain (Selenium NetworkInterceptor).
+ *
+ * http.mode=record  - every response the browser receives is captured into the archive
+ * http.mode=replay  - responses are served from the archive with no network I/O; a miss falls
+ *                     through to the real network (and is added to the archive unless http.recordMisses=false)
+ * http.mode=off     - default, nothing is attached
+ *
+ * The archive (http.archive) is a gzipped binary file keyed by method + URL (+ body hash for requests
+ * with a body). URLs under the configured base "url" are stored relative to it, so a recording made
+ * against one host/port replays against another. Hit/miss counts are printed at JVM exit.
+ */
+public class HttpRecorder {
+    private static final int MAGIC = 0x48415243; // "HARC"
+    // 2: strings as length-prefixed UTF-8 (writeUTF stops at 64 KB, too short for long URLs, CSP, Set-Cookie)
+    private static final int VERSION = 2;
+    private static final String BASE_TOKEN = "{base}/";
+    // the browser hands us decoded bodies, so transfer-level headers must not be replayed
+    private static final Set<String> DROPPED_HEADERS = Set.of("content-encoding", "content-length", "transfer-encoding", "connection");
+
+    private static final Map<String, Recorded> archive = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, NetworkInterceptor> interceptors = Collections.synchronizedMap(new WeakHashMap<>());
+    private static final AtomicInteger hits = new AtomicInteger();
+    private static final AtomicInteger misses = new AtomicInteger();
+    private static final AtomicInteger recorded = new AtomicInteger();
+    private static volatile boolean loaded;
+    private static volatile boolean dirty;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(HttpRecorder::finish, "http-recorder"));
+    }
+
+    /** One captured response. */
+    private static final class Recorded {
+        final int status;
+        final List<String[]> headers;
+        final byte[] body;
+
+        Recorded(int status, List<String[]> headers, byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        HttpResponse toResponse() {
+            HttpResponse res = new HttpResponse().setStatus(status);
+            for (String[] h : headers) res.addHeader(h[0], h[1]);
+            res.setContent(Contents.bytes(body));
+            return res;
+        }
+    }
+
+    public static String getMode() {
+        return ConfigReader.getProperty("http.mode", "off").toLowerCase(Locale.ROOT);
+    }
+
+    public static boolean isEnabled() {
+        String mode = getMode();
+        return mode.equals("record") || mode.equals("replay");
+    }
+
+    /** Attach the interceptor to a freshly created driver (no-op when http.mode=off or DevTools is unavailable). */
+    public static void attach(WebDriver driver) {
+        if (!isEnabled() || !(driver instanceof HasDevTools)) return;
+        loadArchive();
+        boolean replay = getMode().equals("replay");
+        boolean recordMisses = Boolean.parseBoolean(ConfigReader.getProperty("http.recordMisses", "true"));
+
+        Filter filter = next -> req -> {
+            String key = key(req);
+            if (replay) {
+                Recorded hit = archive.get(key);
+                if (hit != null) {
+                    hits.incrementAndGet();
+                    return hit.toResponse();
+                }
+                misses.incrementAndGet();
+                HttpResponse live = next.execute(req);
+                return recordMisses ? store(key, live) : live;
+            }
+            return store(key, next.execute(req));
+        };
+        try {
+            interceptors.put(driver, new NetworkInterceptor(driver, filter));
+        } catch (Exception e) {
+            System.err.println("DEBUG: HttpRecorder could not attach (" + e.getMessage() + "), running against the live network");
+        }
+    }
+
+    /** Stop intercepting for a driver that is about to be quit. */
+    public static void detach(WebDriver driver) {
+        NetworkInterceptor interceptor = interceptors.remove(driver);
+        if (interceptor != null) {
+            try { interceptor.close(); } catch (Exception ignored) {}
+        }
+    }
+
+    /** Write the archive if anything new was captured. */
+    public static synchronized void save() {
+        if (!dirty) return;
+        Path file = archiveFile();
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                List<Map.Entry<String, Recorded>> entries = new ArrayList<>(archive.entrySet());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, Recorded> e : entries) {
+                    Recorded r = e.getValue();
+                    writeString(out, e.getKey());
+                    out.writeShort(r.status);
+                    out.writeShort(r.headers.size());
+                    for (String[] h : r.headers) {
+                        writeString(out, h[0]);
+                        writeString(out, h[1]);
+                    }
+                    out.writeInt(r.body.length);
+                    out.write(r.body);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            dirty = false;
+            System.out.println("DEBUG: HttpRecorder saved " + archive.size() + " responses to " + file);
+        } catch (IOException e) {
+            System.err.println("DEBUG: HttpRecorder could not save " + file + ": " + e.getMessage());
+        }
+    }
+
+    public static int getHits() { return hits.get(); }
+
+    public static int getMisses() { return misses.get(); }
+
+    private static HttpResponse store(String key, HttpResponse live) {
+        byte[] body = Contents.bytes(live.getContent());
+        List<String[]> headers = new ArrayList<>();
+        for (String name : live.getHeaderNames()) {
+            if (DROPPED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) continue;
+            for (String value : live.getHeaders(name)) headers.add(new String[] {name, value});
+        }
+        Recorded r = new Recorded(live.getStatus(), headers, body);
+        if (archive.put(key, r) == null) recorded.incrementAndGet();
+        dirty = true;
+        // the body supplier was consumed above, hand the browser a fresh copy
+        return r.toResponse();
+    }
+
+    private static String key(HttpRequest req) {
+        String url = req.getUri();
+        String base = ConfigReader.getProperty("url");
+        if (base != null && url.startsWith(base)) url = BASE_TOKEN + url.substring(base.length());
+        String key = req.getMethod() + " " + url;
+        byte[] body = Contents.bytes(req.getContent());
+        if (body.length > 0) key += " #" + sha1(body);
+        return key;
+    }
+
+    private static String sha1(byte[] data) {
+        try {
+            byte[] d = MessageDigest.getInstance("SHA-1").digest(data);
+            StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < 8; i++) sb.append(String.format("%02x", d[i]));
+            return sb.toString();
+        } catch (Exception e) {
+            return Integer.toHexString(java.util.Arrays.hashCode(data));
+        }
+    }
+
+    private static Path archiveFile() {
+        return Paths.get(ConfigReader.getProperty("http.archive", "recordings/http-archive.bin.gz"));
+    }
+
+    private static synchronized void loadArchive() {
+        if (loaded) return;
+        loaded = true;
+        Path file = archiveFile();
+        if (!Files.exists(file)) {
+            if (getMode().equals("replay")) System.err.println("DEBUG: HttpRecorder archive " + file + " not found, every request will miss");
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                System.err.println("DEBUG: HttpRecorder ignoring " + file + " (unknown format)");
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = readString(in);
+                int status = in.readUnsignedShort();
+                int headerCount = in.readUnsignedShort();
+                List<String[]> headers = new ArrayList<>(headerCount);
+                for (int h = 0; h < headerCount; h++) headers.add(new String[] {readString(in), readString(in)});
+                byte[] body = new byte[in.readInt()];
+                in.readFully(body);
+                archive.put(key, new Recorded(status, headers, body));
+            }
+            System.out.println("DEBUG: HttpRecorder loaded " + count + " responses from " + file);
+        } catch (IOException e) {
+            System.err.println("DEBUG: HttpRecorder could not read " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void finish() {
+        if (!isEnabled()) return;
+        save();
+        System.out.println("DEBUG: HttpRecorder mode=" + getMode() + " hits=" + hits.get() + " misses=" + misses.get()
+                + " newly recorded=" + recorded.get());
+    }
+}
@@ -0,0 +1,191 @@
+package utils;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.RecordingState;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the framework, so a recording of a CI run shows tests, Cucumber steps,
+ * page-object actions, driver commands, waits, screenshots and browser launches next to GC, lock and I/O events
+ * in JDK Mission Control (Event Browser > Capstone).
+ *
+ * Record with e.g. mvn test -DargLine="-XX:StartFlightRecording=filename=target/run.jfr,settings=profile".
+ * Without a recording the events cost an allocation and nothing else. Driver commands and page-object actions
+ * need the traced driver from CommandTrace.decorate: trace.jfr=auto (default) turns that on when a recording
+ * is already running at driver launch, true/false force it.
+ */
+public final class JfrEvents {
+
+    private JfrEvents() {
+    }
+
+    @Name("capstone.Test")
+    @Label("Test")
+    @Category({"Capstone"})
+    @Description("A TestNG test method or a Cucumber scenario, start to finish")
+    @StackTrace(false)
+    public static class TestRun extends Event {
+        @Label("Name")
+        public String name;
+        @Label("Class / Feature")
+        public String testClass;
+        @Label("Parameters")
+        public String parameters;
+        @Label("Status")
+        public String status;
+    }
+
+    @Name("capstone.Step")
+    @Label("Cucumber Step")
+    @Category({"Capstone"})
+    @StackTrace(false)
+    public static class Step extends Event {
+        @Label("Step")
+        public String step;
+        @Label("Line")
+        public int line;
+        @Label("Status")
+        public String status;
+    }
+
+    @Name("capstone.PageAction")
+    @Label("Page-Object Action")
+    @Category({"Capstone", "Driver"})
+    @Description("Consecutive driver commands issued from the same pages.* method")
+    @StackTrace(false)
+    public static class PageAction extends Event {
+        @Label("Method")
+        public String method;
+        @Label("Commands")
+        public int commands;
+    }
+
+    @Name("capstone.DriverCommand")
+    @Label("Driver Command")
+    @Category({"Capstone", "Driver"})
+    @StackTrace(false)
+    public static class DriverCommand extends Event {
+        @Label("Command")
+        public String command;
+        @Label("Locator")
+        public String locator;
+        @Label("Caller")
+        public String caller;
+        @Label("Inside Wait")
+        public boolean waiting;
+        @Label("Failed")
+        public boolean failed;
+    }
+
+    @Name("capstone.Wait")
+    @Label("Wait")
+    @Category({"Capstone"})
+    @Description("Waits.until / DomWaits.until / Waits.pause: budget against the time actually spent")
+    @StackTrace(false)
+    public static class Wait extends Event {
+        @Label("Kind")
+        public String kind;
+        @Label("Condition")
+        public String condition;
+        @Label("Budget")
+        @Timespan(Timespan.MILLISECONDS)
+        public long budget;
+        @Label("Timed Out")
+        public boolean timedOut;
+    }
+
+    @Name("capstone.Screenshot")
+    @Label("Screenshot")
+    @Category({"Capstone"})
+    @Description("Time the test thread spends getting a screenshot out of the driver")
+    @StackTrace(false)
+    public static class Screenshot extends Event {
+        @Label("Name")
+        public String name;
+        @Label("Region")
+        public String region;
+        @Label("Size")
+        @DataAmount
+        public long size;
+    }
+
+    @Name("capstone.ScreenshotWrite")
+    @Label("Screenshot Write")
+    @Category({"Capstone"})
+    @Description("Scaling, re-encoding and storing a screenshot on the screenshot pool")
+    @StackTrace(false)
+    public static class ScreenshotWrite extends Event {
+        @Label("Name")
+        public String name;
+        @Label("Path")
+        public String path;
+        @Label("Written")
+        @DataAmount
+        public long size;
+        @Label("Duplicate Frame")
+        public boolean duplicate;
+    }
+
+    @Name("capstone.DriverLaunch")
+    @Label("Driver Launch")
+    @Category({"Capstone", "Driver"})
+    @StackTrace(false)
+    public static class DriverLaunch extends Event {
+        @Label("Browser")
+        public String browser;
+        @Label("Profile")
+        public String profile;
+        @Label("Started")
+        public boolean started;
+    }
+
+    // page action being extended on this thread
+    private static final ThreadLocal<PageAction> openPage = new ThreadLocal<>();
+
+    /** trace.jfr=true, or auto (default) with a Flight Recorder recording running right now. */
+    public static boolean tracesCommands() {
+        String mode = ConfigReader.getProperty("trace.jfr", "auto");
+        if (!"auto".equalsIgnoreCase(mode)) return Boolean.parseBoolean(mode);
+        try {
+            return FlightRecorder.isInitialized() && FlightRecorder.getFlightRecorder().getRecordings().stream()
+                    .anyMatch(r -> r.getState() == RecordingState.RUNNING);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * A driver command from page-object method label (null = not from a page object) just finished.
+     * Extends the open action when it is the same method, otherwise commits that one and opens next,
+     * which the caller began when the command started.
+     */
+    static void pageCommand(String label, PageAction next) {
+        PageAction open = openPage.get();
+        if (open != null && open.method.equals(label)) {
+            open.commands++;
+            open.end();
+            return;
+        }
+        closePage();
+        if (label == null || next == null) return;
+        next.method = label;
+        next.commands = 1;
+        next.end();
+        openPage.set(next);
+    }
+
+    /** Commit the calling thread's open page-object action (end of a test or step). */
+    public static void closePage() {
+        PageAction open = openPage.get();
+        if (open == null) return;
+        openPage.remove();
+        open.commit();
+    }
+}
@@ -0,0 +1,207 @@
+package utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startup time and resident memory per browser launch, grouped by launch profile.
+ * Averages are kept in target/launch-profile-stats.properties across runs, so a "lean" run
+ * can report what it saves against the last "full" run (and vice versa) at JVM exit.
+ */
+public class LaunchStats {
+    private static final Path STATS_FILE = Paths.get("target", "launch-profile-stats.properties");
+
+    private static final AtomicLong launches = new AtomicLong();
+    private static final AtomicLong totalStartupMs = new AtomicLong();
+    private static final AtomicLong rssSamples = new AtomicLong();
+    private static final AtomicLong totalRssKb = new AtomicLong();
+    private static volatile String profile = "full";
+    private static volatile boolean cdpUnsupported;
+    private static volatile boolean rssWarned;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(LaunchStats::report, "launch-stats"));
+    }
+
+    /** Record one browser start: wall time to get a session plus the RSS of its processes right after. */
+    public static void record(String launchProfile, WebDriver driver, long startupMs) {
+        profile = launchProfile;
+        launches.incrementAndGet();
+        totalStartupMs.addAndGet(startupMs);
+        long rssKb = browserRssKb(driver);
+        if (rssKb > 0) {
+            rssSamples.incrementAndGet();
+            totalRssKb.addAndGet(rssKb);
+        }
+        System.out.println("DEBUG: browser started (profile=" + launchProfile + ") in " + startupMs + " ms"
+                + (rssKb > 0 ? ", rss=" + (rssKb / 1024) + " MB" : ""));
+    }
+
+    /**
+     * Sum of VmRSS over the browser's own processes (browser, renderers, GPU, utilities); Linux only, -1 otherwise.
+     * Process ids come from CDP SystemInfo.getProcessInfo where Chrome allows it on the page target; otherwise
+     * from the process tree whose command line carries the session's profile directory (Chrome's userDataDir,
+     * Firefox's moz:profile).
+     */
+    static long browserRssKb(WebDriver driver) {
+        if (!Files.isDirectory(Paths.get("/proc"))) return -1;
+        List<Long> pids = cdpProcessIds(driver);
+        if (pids == null) pids = processTree(profileDir(driver));
+        long total = 0;
+        for (long pid : pids) {
+            total += rssKb(pid);
+        }
+        return total > 0 ? total : -1;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Long> cdpProcessIds(WebDriver driver) {
+        if (!(driver instanceof HasCdp) || cdpUnsupported) return null;
+        try {
+            Map<String, Object> info = ((HasCdp) driver).executeCdpCommand("SystemInfo.getProcessInfo", Map.of());
+            List<Long> pids = new ArrayList<>();
+            for (Map<String, Object> p : (List<Map<String, Object>>) info.get("processInfo")) {
+                pids.add(((Number) p.get("id")).longValue());
+            }
+            return pids;
+        } catch (Exception e) {
+            // not exposed on page targets by most Chrome builds; say so once and use the process tree from now on
+            cdpUnsupported = true;
+            System.out.println("DEBUG: SystemInfo.getProcessInfo not available (" + firstLine(e) + "), measuring browser rss from /proc");
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String profileDir(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) return null;
+        Capabilities caps = ((HasCapabilities) driver).getCapabilities();
+        Object chrome = caps.getCapability("chrome");
+        if (chrome instanceof Map) {
+            Object dir = ((Map<String, Object>) chrome).get("userDataDir");
+            if (dir != null) return dir.toString();
+        }
+        Object firefox = caps.getCapability("moz:profile");
+        return firefox != null ? firefox.toString() : null;
+    }
+
+    // processes whose command line names the profile directory, plus all their descendants
+    private static List<Long> processTree(String profileDir) {
+        List<Long> tree = new ArrayList<>();
+        if (profileDir == null || profileDir.isEmpty()) {
+            warnOnce("browser profile directory not in the session capabilities, rss not reported");
+            return tree;
+        }
+        Map<Long, List<Long>> children = new HashMap<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        try (DirectoryStream<Path> procs = Files.newDirectoryStream(Paths.get("/proc"), "[0-9]*")) {
+            for (Path proc : procs) {
+                try {
+                    long pid = Long.parseLong(proc.getFileName().toString());
+                    String stat = Files.readString(proc.resolve("stat"));
+                    long parent = Long.parseLong(stat.substring(stat.lastIndexOf(')') + 2).split(" ")[1]);
+                    children.computeIfAbsent(parent, k -> new ArrayList<>()).add(pid);
+                    String cmdline = new String(Files.readAllBytes(proc.resolve("cmdline")), StandardCharsets.UTF_8);
+                    if (cmdline.contains(profileDir)) pending.add(pid);
+                } catch (Exception ignored) {
+                    // process exited while listing, or is not ours to read
+                }
+            }
+        } catch (IOException e) {
+            warnOnce("could not list /proc (" + e.getMessage() + "), rss not reported");
+            return tree;
+        }
+        // a child that names the directory itself is reached twice; count it once
+        Set<Long> seen = new HashSet<>();
+        while (!pending.isEmpty()) {
+            long pid = pending.poll();
+            if (!seen.add(pid)) continue;
+            tree.add(pid);
+            pending.addAll(children.getOrDefault(pid, List.of()));
+        }
+        if (tree.isEmpty()) warnOnce("no process found for browser profile " + profileDir + ", rss not reported");
+        return tree;
+    }
+
+    private static void warnOnce(String message) {
+        if (rssWarned) return;
+        rssWarned = true;
+        System.out.println("DEBUG: " + message);
+    }
+
+    private static String firstLine(Exception e) {
+        String message = String.valueOf(e.getMessage());
+        int nl = message.indexOf('\n');
+        return nl < 0 ? message : message.substring(0, nl);
+    }
+
+    private static long rssKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Paths.get("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (Exception ignored) {}
+        return 0;
+    }
+
+    /** Print this run's averages and the saving against the other profile's last recorded run. */
+    static synchronized void report() {
+        long n = launches.get();
+        if (n == 0) return;
+        long avgStartup = totalStartupMs.get() / n;
+        long avgRssMb = rssSamples.get() == 0 ? -1 : totalRssKb.get() / rssSamples.get() / 1024;
+
+        Properties stats = new Properties();
+        try {
+            if (Files.exists(STATS_FILE)) {
+                try (InputStream in = Files.newInputStream(STATS_FILE)) { stats.load(in); }
+            }
+        } catch (Exception ignored) {}
+
+        StringBuilder sb = new StringBuilder("DEBUG: launch profile '" + profile + "': " + n + " browsers, avg startup "
+                + avgStartup + " ms" + (avgRssMb > 0 ? ", avg rss " + avgRssMb + " MB" : ""));
+        String other = "lean".equals(profile) ? "full" : "lean";
+        String otherStartup = stats.getProperty(other + ".startupMs");
+        String otherRss = stats.getProperty(other + ".rssMb");
+        if (otherStartup != null) {
+            long deltaMs = Long.parseLong(otherStartup) - avgStartup;
+            sb.append(" | vs last '").append(other).append("' run: ").append(deltaMs).append(" ms startup saved");
+            if (otherRss != null && avgRssMb > 0 && Long.parseLong(otherRss) > 0) {
+                sb.append(", ").append(Long.parseLong(otherRss) - avgRssMb).append(" MB rss saved per browser");
+            }
+        }
+        System.out.println(sb);
+
+        stats.setProperty(profile + ".startupMs", String.valueOf(avgStartup));
+        stats.setProperty(profile + ".rssMb", String.valueOf(avgRssMb));
+        try {
+            Files.createDirectories(STATS_FILE.getParent());
+            try (OutputStream out = Files.newOutputStream(STATS_FILE)) {
+                stats.store(out, "average browser launch cost per profile");
+            }
+        } catch (Exception ignored) {}
+    }
+}
@@ -0,0 +1,247 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Ordered list of fallback locators for one UI element that learns which one works.
+ *
+ * Each strategy keeps a success score (moving average of hit/miss) per page, element key and
+ * application build (window.__NEXT_DATA__.buildId). Lookups try strategies best score first, so once a
+ * strategy has won the common path is a single zero-wait lookup; a strategy that starts missing drops
+ * below the others. Scores are kept in target/locator-stats.properties across runs.
+ *
+ * Catch-all locators (any button, any svg) go in orElse(...): they are tried after every ranked strategy,
+ * in their declared order, and are never scored, so a broad match can not outrank the specific ones.
+ * Where a match is only right if acting on it has the intended effect, use attempt(...) and report the
+ * outcome: the strategy is scored a hit on succeeded() and a miss on failed(), not when it merely matched.
+ */
+public class LocatorChain {
+    private static final Path STATS_FILE = Paths.get("target", "locator-stats.properties");
+    private static final double DECAY = 0.7;
+    private static final String BUILD_JS =
+        "return (window.__NEXT_DATA__ && window.__NEXT_DATA__.buildId) || null;";
+
+    private static final Map<String, Double> scores = new ConcurrentHashMap<>();
+    // driver -> {url, build id read on that url}
+    private static final Map<WebDriver, String[]> builds = Collections.synchronizedMap(new WeakHashMap<>());
+    private static volatile boolean loaded;
+    private static volatile boolean dirty;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(LocatorChain::save, "locator-stats"));
+    }
+
+    private final String name;
+    private final List<By> strategies;
+    private final List<By> lastResort;
+
+    private LocatorChain(String name, List<By> strategies, List<By> lastResort) {
+        this.name = name;
+        this.strategies = strategies;
+        this.lastResort = lastResort;
+    }
+
+    /** Chain for element key on page, strategies in their declared (initial) order. */
+    public static LocatorChain of(String page, String key, By... strategies) {
+        return new LocatorChain(page + "." + key, Collections.unmodifiableList(Arrays.asList(strategies)), Collections.emptyList());
+    }
+
+    /** This chain plus fixed last-resort locators, tried in order after the ranked ones and never promoted. */
+    public LocatorChain orElse(By... lastResort) {
+        return new LocatorChain(name, strategies, Collections.unmodifiableList(Arrays.asList(lastResort)));
+    }
+
+    /** A lookup whose hit is scored only once the caller knows whether acting on it worked. */
+    public final class Match {
+        private final String prefix;
+        private final By by;
+        private final boolean ranked;
+        private final int position;
+        private final List<WebElement> elements;
+
+        private Match(String prefix, By by, boolean ranked, int position, List<WebElement> elements) {
+            this.prefix = prefix;
+            this.by = by;
+            this.ranked = ranked;
+            this.position = position;
+            this.elements = elements;
+        }
+
+        public WebElement getElement() {
+            return elements.get(0);
+        }
+
+        public List<WebElement> getElements() {
+            return elements;
+        }
+
+        public By getLocator() {
+            return by;
+        }
+
+        /** The action had its effect: count a hit for the strategy (a last-resort locator is not scored). */
+        public void succeeded() {
+            if (!ranked) return;
+            update(prefix, by, true);
+            if (position > 0) System.out.println("DEBUG: LocatorChain " + name + " matched fallback #" + position + " " + by + " (promoted)");
+        }
+
+        /** The element matched but acting on it did not work: count a miss so the strategy drops back. */
+        public void failed() {
+            if (!ranked) return;
+            update(prefix, by, false);
+            System.out.println("DEBUG: LocatorChain " + name + " " + by + " matched but had no effect (demoted)");
+        }
+    }
+
+    /** First element of the best-ranked strategy that matches right now, or null. */
+    public WebElement find(WebDriver driver) {
+        return find(driver, driver, e -> true);
+    }
+
+    /** Like find(driver), scoped to an element, accepting only elements that pass accept. */
+    public WebElement find(WebDriver driver, SearchContext scope, Predicate<WebElement> accept) {
+        List<WebElement> found = findAll(driver, scope, accept);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /** All accepted matches of the best-ranked strategy that has any; empty if none match. A match counts as a hit. */
+    public List<WebElement> findAll(WebDriver driver, SearchContext scope, Predicate<WebElement> accept) {
+        Match match = attempt(driver, scope, accept);
+        if (match == null) return Collections.emptyList();
+        match.succeeded();
+        return match.elements;
+    }
+
+    /**
+     * Accepted matches of the best-ranked strategy that has any, or null. Strategies tried before it are
+     * scored as misses right away; the matching one is scored when the caller reports succeeded() / failed().
+     */
+    public Match attempt(WebDriver driver, SearchContext scope, Predicate<WebElement> accept) {
+        String prefix = prefix(driver);
+        List<By> ranked = ranked(prefix);
+        for (int i = 0; i < ranked.size(); i++) {
+            By by = ranked.get(i);
+            List<WebElement> hits = accepted(driver, scope, by, accept);
+            if (!hits.isEmpty()) return new Match(prefix, by, true, i, hits);
+            update(prefix, by, false);
+        }
+        for (By by : lastResort) {
+            List<WebElement> hits = accepted(driver, scope, by, accept);
+            if (!hits.isEmpty()) {
+                System.out.println("DEBUG: LocatorChain " + name + " fell back to last-resort " + by);
+                return new Match(prefix, by, false, -1, hits);
+            }
+        }
+        return null;
+    }
+
+    private static List<WebElement> accepted(WebDriver driver, SearchContext scope, By by, Predicate<WebElement> accept) {
+        List<WebElement> hits = new ArrayList<>();
+        for (WebElement e : Waits.findAll(driver, scope, by)) {
+            try {
+                if (accept.test(e)) hits.add(e);
+            } catch (Exception ignored) {}
+        }
+        return hits;
+    }
+
+    /** Strategies in the order the next lookup will try them. */
+    public List<By> ranked(WebDriver driver) {
+        return ranked(prefix(driver));
+    }
+
+    private List<By> ranked(String prefix) {
+        ensureLoaded();
+        List<By> order = new ArrayList<>(strategies);
+        // stable sort: untried strategies keep their declared order
+        order.sort(Comparator.comparingDouble((By by) -> -scores.getOrDefault(prefix + by, 0.0)));
+        return order;
+    }
+
+    private void update(String prefix, By by, boolean hit) {
+        scores.merge(prefix + by, hit ? 1.0 : 0.0, (old, now) -> old * DECAY + now * (1 - DECAY));
+        dirty = true;
+    }
+
+    private String prefix(WebDriver driver) {
+        return name + "@" + build(driver) + "|";
+    }
+
+    // re-read when the driver's URL changed, so a (pooled) session first queried on about:blank or another
+    // page does not stay on the wrong build; pages without Next.js data share the "default" build
+    private static String build(WebDriver driver) {
+        String url;
+        try {
+            url = String.valueOf(driver.getCurrentUrl());
+        } catch (Exception e) {
+            url = "";
+        }
+        String[] cached = builds.get(driver);
+        if (cached != null && cached[0].equals(url)) return cached[1];
+        String build;
+        try {
+            Object id = ((JavascriptExecutor) driver).executeScript(BUILD_JS);
+            build = id == null ? "default" : id.toString();
+        } catch (Exception e) {
+            build = "default";
+        }
+        builds.put(driver, new String[] {url, build});
+        return build;
+    }
+
+    private static synchronized void ensureLoaded() {
+        if (loaded) return;
+        loaded = true;
+        if (!Files.exists(STATS_FILE)) return;
+        Properties p = new Properties();
+        try (InputStream in = Files.newInputStream(STATS_FILE)) {
+            p.load(in);
+            for (String k : p.stringPropertyNames()) {
+                try {
+                    scores.putIfAbsent(k, Double.parseDouble(p.getProperty(k)));
+                } catch (NumberFormatException ignored) {}
+            }
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not read " + STATS_FILE + ": " + e.getMessage());
+        }
+    }
+
+    static synchronized void save() {
+        if (!dirty) return;
+        Properties p = new Properties();
+        for (Map.Entry<String, Double> e : scores.entrySet()) {
+            p.setProperty(e.getKey(), String.format(Locale.ROOT, "%.4f", e.getValue()));
+        }
+        try {
+            Files.createDirectories(STATS_FILE.getParent());
+            try (OutputStream out = Files.newOutputStream(STATS_FILE)) {
+                p.store(out, "locator chain scores: <page>.<key>@<build>|<locator>");
+            }
+            dirty = false;
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not write " + STATS_FILE + ": " + e.getMessage());
+        }
+    }
+}
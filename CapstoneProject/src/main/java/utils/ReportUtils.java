@@ -3,67 +3,307 @@ package utils;
 
 import com.aventstack.extentreports.ExtentReports;
 import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.markuputils.MarkupHelper;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.json.Json;
 
-import java.io.File;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.nio.file.Files;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 
+/**
+ * Extent report shared by parallel tests.
+ *
+ * createTest gives the calling thread its own current test, so log calls from concurrent tests land on
+ * their own nodes. Log calls never touch Extent themselves: they go on a lock-free queue drained by one
+ * "report-writer" thread, which owns the ExtentReports model, appends every entry to
+ * reports/ExtentReports/events.jsonl as it goes (what a crashed run still leaves behind) and rewrites the
+ * HTML report every report.flushSeconds, on flushReports() and at JVM exit.
+ *
+ * Memory is not flat: Extent keeps every test in its model and each HTML flush rewrites the whole report,
+ * so a long run's flushes grow with it. For big suites raise report.flushSeconds, or set it to 0 to write the
+ * HTML only on flushReports() and at exit (events.jsonl still streams every entry).
+ */
 public class ReportUtils {
+    private static final String REPORT_FILE = "reports/ExtentReports/extent-report.html";
+    private static final Path REPORT_DIR = Paths.get("reports", "ExtentReports");
+    private static final Path EVENTS_FILE = REPORT_DIR.resolve("events.jsonl");
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long STOP_TIMEOUT_MS = 30_000;
+    private static final Json JSON = new Json();
 
-    private static ExtentReports extent;
-    private static ExtentTest test;
+    private static final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<Node> current = new ThreadLocal<>();
+    private static final AtomicLong ids = new AtomicLong();
 
-    public static void initReports() {
+    private static volatile ExtentReports extent;
+    private static volatile Thread writer;
+    private static volatile boolean flushRequested;
+    private static volatile boolean stopping;
+
+    /** A test as its own thread sees it; the ExtentTest behind it is created and used on the writer thread only. */
+    private static final class Node {
+        final long id = ids.incrementAndGet();
+        final String name;
+        ExtentTest test;
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+
+    /** One queued report call. */
+    private static final class Entry {
+        final long at = System.currentTimeMillis();
+        final String thread;
+        final String type;
+        final Node node;
+        final Object payload;
+
+        Entry(String type, Node node, Object payload) {
+            this(type, node, payload, Thread.currentThread().getName());
+        }
+
+        Entry(String type, Node node, Object payload, String thread) {
+            this.type = type;
+            this.node = node;
+            this.payload = payload;
+            this.thread = thread;
+        }
+    }
+
+    public static synchronized void initReports() {
         if (extent == null) {
-            ExtentSparkReporter reporter = new ExtentSparkReporter("reports/ExtentReports/extent-report.html");
-            extent = new ExtentReports();
-            extent.attachReporter(reporter);
+            ExtentSparkReporter reporter = new ExtentSparkReporter(REPORT_FILE);
+            ExtentReports reports = new ExtentReports();
+            reports.attachReporter(reporter);
+            extent = reports;
+            writer = new Thread(ReportUtils::drain, "report-writer");
+            writer.setDaemon(true);
+            writer.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(ReportUtils::stop, "report-flush"));
         }
     }
 
+    /** Start a test and make it the calling thread's current test (replacing one that was not ended). */
     public static void createTest(String testName) {
-        test = extent.createTest(testName);
+        if (extent == null) initReports();
+        Node node = new Node(testName);
+        current.set(node);
+        queue.add(new Entry("create", node, testName));
+    }
+
+    /** Detach the calling thread from its current test, so later logging from this thread cannot land on it. */
+    public static void endTest() {
+        Node node = current.get();
+        if (node == null) return;
+        current.remove();
+        queue.add(new Entry("end", node, null));
     }
 
     public static void logInfo(String message) {
-        if (test != null) test.info(message);
+        log("info", message);
     }
 
     public static void logPass(String message) {
-        if (test != null) test.pass(message);
+        log("pass", message);
     }
 
     public static void logFail(String message) {
-        if (test != null) test.fail(message);
+        log("fail", message);
+    }
+
+    // first row is the header
+    public static void logTable(String[][] rows) {
+        if (rows != null) log("table", rows);
     }
 
-    // ✅ Capture Screenshot
+    // ✅ Capture Screenshot (stored by the Screenshots pool; attached once it is on disk)
     public static void captureScreenshot(WebDriver driver, String stepName) {
-        try {
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
-            String path = "reports/Screenshots/" + stepName + "_" + timestamp + ".png";
+        attachScreenshot(Screenshots.capture(driver, stepName), stepName);
+    }
+
+    // only the region's element (e.g. a page object's getFailureRegion()) plus a thumbnail
+    public static void captureScreenshot(WebDriver driver, By region, String stepName) {
+        attachScreenshot(Screenshots.captureRegion(driver, region, stepName), stepName);
+    }
+
+    /**
+     * A screenshot already taken (e.g. in an @AfterMethod) attached to the current test once it is stored.
+     * The entry is queued when the Screenshots pool finishes the file, so the writer never waits on it.
+     */
+    public static void attachScreenshot(CompletableFuture<Path> screenshot, String stepName) {
+        Node node = current.get();
+        if (screenshot == null || node == null) return;
+        String thread = Thread.currentThread().getName();
+        screenshot.whenComplete((file, error) -> {
+            if (file == null) {
+                System.err.println("DEBUG: screenshot '" + stepName + "' for '" + node.name + "' not available"
+                        + (error != null ? ": " + error.getMessage() : ""));
+                return;
+            }
+            String path = REPORT_DIR.relativize(file).toString().replace('\\', '/');
+            queue.add(new Entry("screenshot", node, new String[] {path, stepName}, thread));
+            LockSupport.unpark(writer);
+        });
+    }
+
+    /** Ask the writer to rewrite the HTML report now; returns immediately. */
+    public static void flushReports() {
+        if (extent == null) return;
+        flushRequested = true;
+        LockSupport.unpark(writer);
+    }
 
-            File src = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-            File dest = new File(path);
-            Files.createDirectories(dest.getParentFile().toPath());
-            Files.copy(src.toPath(), dest.toPath());
+    private static void log(String type, Object payload) {
+        Node node = current.get();
+        if (node != null) queue.add(new Entry(type, node, payload));
+    }
+
+    // writer thread: apply queued calls in order, stream them to events.jsonl, rewrite the HTML now and then
+    private static void drain() {
+        long interval = TimeUnit.SECONDS.toNanos(ConfigReader.getIntProperty("report.flushSeconds", 5));
+        long nextFlush = System.nanoTime() + interval;
+        boolean dirty = false;
+        BufferedWriter events = openEvents();
+        while (true) {
+            // read before draining, so everything queued ahead of stop() is still written
+            boolean last = stopping;
+            boolean applied = false;
+            Entry e;
+            while ((e = queue.poll()) != null) {
+                apply(e);
+                events = append(events, e);
+                applied = true;
+            }
+            if (applied) {
+                dirty = true;
+                events = flush(events);
+            }
+            if (last) break;
+            if (flushRequested || (dirty && interval > 0 && System.nanoTime() >= nextFlush)) {
+                flushRequested = false;
+                dirty = false;
+                nextFlush = System.nanoTime() + interval;
+                flushExtent();
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        flushExtent();
+        if (events != null) {
+            try {
+                events.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
 
-            if (test != null) {
-                test.addScreenCaptureFromPath(path, stepName);
+    private static void apply(Entry e) {
+        try {
+            if (e.type.equals("create")) {
+                e.node.test = extent.createTest(e.node.name);
+                return;
             }
+            ExtentTest test = e.node.test;
+            if (test == null) return;
+            switch (e.type) {
+                case "info": test.info((String) e.payload); break;
+                case "pass": test.pass((String) e.payload); break;
+                case "fail": test.fail((String) e.payload); break;
+                case "table": test.info(MarkupHelper.createTable((String[][]) e.payload)); break;
+                case "screenshot":
+                    String[] shot = (String[]) e.payload;
+                    test.addScreenCaptureFromPath(shot[0], shot[1]);
+                    break;
+                default:
+                    break;
+            }
+        } catch (Exception ex) {
+            System.err.println("DEBUG: report entry '" + e.type + "' for '" + e.node.name + "' failed: " + ex.getMessage());
+        }
+    }
+
+    private static void flushExtent() {
+        try {
+            extent.flush();
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not write " + REPORT_FILE + ": " + e.getMessage());
+        }
+    }
+
+    private static BufferedWriter openEvents() {
+        try {
+            Files.createDirectories(EVENTS_FILE.getParent());
+            return Files.newBufferedWriter(EVENTS_FILE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
         } catch (IOException e) {
-            e.printStackTrace();
+            System.err.println("DEBUG: could not open " + EVENTS_FILE + ", report events are not streamed: " + e.getMessage());
+            return null;
         }
     }
 
-    public static void flushReports() {
-        if (extent != null) extent.flush();
+    // one JSON object per line; a failed write stops the streaming for the rest of the run, the HTML report carries on
+    private static BufferedWriter append(BufferedWriter out, Entry e) {
+        if (out == null) return null;
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("ts", e.at);
+        line.put("thread", e.thread);
+        line.put("test", e.node.id);
+        line.put("type", e.type);
+        if (e.payload instanceof String[][]) {
+            line.put("rows", Arrays.asList((String[][]) e.payload));
+        } else if (e.type.equals("screenshot")) {
+            line.put("path", ((String[]) e.payload)[0]);
+            line.put("message", ((String[]) e.payload)[1]);
+        } else if (e.payload != null) {
+            line.put("message", e.payload);
+        }
+        try {
+            StringBuilder sb = new StringBuilder(128);
+            JSON.newOutput(sb).setPrettyPrint(false).write(line);
+            out.write(sb.toString());
+            out.newLine();
+            return out;
+        } catch (Exception ex) {
+            System.err.println("DEBUG: could not write " + EVENTS_FILE + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    private static BufferedWriter flush(BufferedWriter out) {
+        if (out == null) return null;
+        try {
+            out.flush();
+            return out;
+        } catch (IOException ex) {
+            System.err.println("DEBUG: could not write " + EVENTS_FILE + ": " + ex.getMessage());
+            return null;
+        }
+    }
+
+    // JVM exit: let the writer drain what is queued and write the final report
+    private static void stop() {
+        stopping = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(STOP_TIMEOUT_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) System.err.println("DEBUG: report writer still busy after " + STOP_TIMEOUT_MS + " ms, report may be incomplete");
     }
 }
 
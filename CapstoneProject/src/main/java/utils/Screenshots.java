@@ -0,0 +1,329 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.chromium.HasCdp;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Screenshot pipeline. The test thread only pulls the PNG bytes out of the driver; scaling, re-encoding and
+ * writing run on a small bounded pool (screenshot.threads, queue of screenshot.queue). When the queue is full
+ * the test thread encodes its own shot rather than letting captures pile up in memory.
+ *
+ * Images are scaled down to screenshot.maxWidth, re-encoded as screenshot.format (jpg or png) and stored in
+ * reports/Screenshots under their content hash, so identical frames (the same error page on every failing
+ * data row) are written once. reports/Screenshots/index.csv maps each capture name and time to its file and,
+ * for region captures, its thumbnail.
+ *
+ * captureRegion keeps only the elements that matter (a page object's FailureRegion) plus
+ * screenshot.regionPadding CSS pixels around them, and adds a screenshot.thumbWidth thumbnail as <hash>_thumb.jpg.
+ */
+public class Screenshots {
+    private static final Path DIR = Paths.get("reports", "Screenshots");
+    private static final Path INDEX = DIR.resolve("index.csv");
+    private static final String INDEX_HEADER = "time,name,file,thumb";
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    // keeps the rendered elements, scrolls the first into view; returns the box around all of them in document
+    // CSS pixels and the document size, or null when none is rendered
+    private static final String REGION_JS =
+        "var els = arguments[0].filter(function (e) { var r = e.getBoundingClientRect(); return r.width > 0 && r.height > 0; });" +
+        "if (!els.length) return null;" +
+        "els[0].scrollIntoView({block: 'nearest', inline: 'nearest'});" +
+        "var l = Infinity, t = Infinity, r = -Infinity, b = -Infinity, d = document.documentElement;" +
+        "els.forEach(function (e) {" +
+        "  var x = e.getBoundingClientRect();" +
+        "  l = Math.min(l, x.left); t = Math.min(t, x.top); r = Math.max(r, x.right); b = Math.max(b, x.bottom);" +
+        "});" +
+        "return [l + window.scrollX, t + window.scrollY, r - l, b - t," +
+        "        Math.max(d.scrollWidth, d.clientWidth), Math.max(d.scrollHeight, d.clientHeight)];";
+
+    // content hash -> file written for it this run
+    private static final Map<String, Path> stored = new ConcurrentHashMap<>();
+    private static final LongAdder captures = new LongAdder();
+    private static final LongAdder duplicates = new LongAdder();
+    private static final LongAdder bytesIn = new LongAdder();
+    private static final LongAdder bytesOut = new LongAdder();
+    private static final ThreadPoolExecutor pool = createPool();
+    private static boolean indexChecked;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Screenshots::shutdown, "screenshot-drain"));
+    }
+
+    /**
+     * Grab a screenshot of driver now and store it in the background.
+     * The future gives the stored file, or null when the capture or the write failed.
+     */
+    public static CompletableFuture<Path> capture(WebDriver driver, String name) {
+        JfrEvents.Screenshot event = new JfrEvents.Screenshot();
+        event.begin();
+        return capture(driver, name, event);
+    }
+
+    // full viewport, recorded on an event the caller has begun
+    private static CompletableFuture<Path> capture(WebDriver driver, String name, JfrEvents.Screenshot event) {
+        String time = LocalDateTime.now().format(TIMESTAMP);
+        byte[] png;
+        try {
+            png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            event.size = png.length;
+        } catch (Exception e) {
+            System.err.println("DEBUG: screenshot '" + name + "' failed: " + e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        } finally {
+            event.name = name;
+            event.commit();
+        }
+        captures.increment();
+        bytesIn.add(png.length);
+        return CompletableFuture.supplyAsync(() -> store(name, time, png, false), pool);
+    }
+
+    /**
+     * Like capture(...), but only the box around the rendered elements matching region (with padding) plus a
+     * thumbnail. Falls back to the full viewport when nothing matching is rendered.
+     */
+    public static CompletableFuture<Path> captureRegion(WebDriver driver, By region, String name) {
+        JfrEvents.Screenshot event = new JfrEvents.Screenshot();
+        event.begin();
+        String time = LocalDateTime.now().format(TIMESTAMP);
+        byte[] png = null;
+        try {
+            List<WebElement> elements = Waits.findAll(driver, region);
+            if (!elements.isEmpty()) png = regionBytes(driver, elements);
+        } catch (Exception e) {
+            System.err.println("DEBUG: region screenshot '" + name + "' failed, taking the full viewport: " + e.getMessage());
+        }
+        // one event per capture: the fallback records the full viewport on this same event
+        if (png == null) return capture(driver, name, event);
+        event.size = png.length;
+        event.name = name;
+        event.region = region.toString();
+        event.commit();
+        byte[] shot = png;
+        captures.increment();
+        bytesIn.add(shot.length);
+        return CompletableFuture.supplyAsync(() -> store(name, time, shot, true), pool);
+    }
+
+    // Chrome crops in the browser (CDP clip, so padding is possible); other drivers screenshot the first visible element
+    @SuppressWarnings("unchecked")
+    private static byte[] regionBytes(WebDriver driver, List<WebElement> elements) {
+        if (!(driver instanceof HasCdp)) {
+            for (WebElement e : elements) {
+                if (e.isDisplayed()) return e.getScreenshotAs(OutputType.BYTES);
+            }
+            return null;
+        }
+        List<Object> box = (List<Object>) ((JavascriptExecutor) driver).executeScript(REGION_JS, elements);
+        if (box == null) return null;
+        double pad = Math.max(0, ConfigReader.getIntProperty("screenshot.regionPadding", 16));
+        double x = Math.max(0, number(box, 0) - pad);
+        double y = Math.max(0, number(box, 1) - pad);
+        double width = Math.min(number(box, 4), number(box, 0) + number(box, 2) + pad) - x;
+        double height = Math.min(number(box, 5), number(box, 1) + number(box, 3) + pad) - y;
+        if (width < 1 || height < 1) return null;
+        Map<String, Object> clip = Map.of("x", x, "y", y, "width", width, "height", height, "scale", 1);
+        // the clip is in document pixels and may reach past the viewport (padding, tall regions)
+        Map<String, Object> shot = ((HasCdp) driver).executeCdpCommand("Page.captureScreenshot",
+                Map.of("format", "png", "clip", clip, "captureBeyondViewport", true));
+        return Base64.getDecoder().decode((String) shot.get("data"));
+    }
+
+    private static double number(List<Object> values, int i) {
+        return ((Number) values.get(i)).doubleValue();
+    }
+
+    private static ThreadPoolExecutor createPool() {
+        int threads = Math.max(1, ConfigReader.getIntProperty("screenshot.threads", 2));
+        int queue = Math.max(1, ConfigReader.getIntProperty("screenshot.queue", 16));
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue), r -> {
+                    Thread t = new Thread(r, "screenshot-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static Path store(String name, String time, byte[] png, boolean thumbnail) {
+        JfrEvents.ScreenshotWrite event = new JfrEvents.ScreenshotWrite();
+        event.begin();
+        try {
+            String hash = sha256(png);
+            // the same frame arriving on two threads is encoded once; the second waits for the first
+            Path file = stored.computeIfAbsent(thumbnail ? hash + "+thumb" : hash, k -> write(hash, png, thumbnail, event));
+            if (event.size == 0) {
+                event.duplicate = true;
+                duplicates.increment();
+            }
+            Path thumb = thumbnail ? DIR.resolve(hash + "_thumb.jpg") : null;
+            index(time, name, file, thumb != null && Files.exists(thumb) ? thumb : null);
+            event.path = file.toString();
+            return file;
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not store screenshot '" + name + "': " + e.getMessage());
+            return null;
+        } finally {
+            event.name = name;
+            event.commit();
+        }
+    }
+
+    private static Path write(String hash, byte[] png, boolean thumbnail, JfrEvents.ScreenshotWrite event) {
+        try {
+            BufferedImage src = ImageIO.read(new ByteArrayInputStream(png));
+            // undecodable input is kept as the driver sent it
+            byte[] bytes = src == null ? png : encode(src, ConfigReader.getIntProperty("screenshot.maxWidth", 1280), format());
+            Path file = DIR.resolve(hash + "." + (src == null ? "png" : format()));
+            Files.createDirectories(DIR);
+            save(file, bytes);
+            long written = bytes.length;
+            if (thumbnail && src != null) {
+                byte[] thumb = encode(src, ConfigReader.getIntProperty("screenshot.thumbWidth", 240), "jpg");
+                save(DIR.resolve(hash + "_thumb.jpg"), thumb);
+                written += thumb.length;
+            }
+            bytesOut.add(written);
+            event.size = written;
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void save(Path file, byte[] bytes) throws IOException {
+        Path tmp = DIR.resolve(file.getFileName() + ".tmp");
+        Files.write(tmp, bytes);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // src scaled down to maxWidth (0 = keep) and encoded as format (jpg or png)
+    private static byte[] encode(BufferedImage src, int maxWidth, String format) throws IOException {
+        int width = src.getWidth();
+        int height = src.getHeight();
+        if (maxWidth > 0 && width > maxWidth) {
+            height = Math.max(1, (int) Math.round(height * (maxWidth / (double) width)));
+            width = maxWidth;
+        }
+        // RGB: JPEG has no alpha channel
+        BufferedImage out = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = out.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(src, 0, 0, width, height, null);
+        g.dispose();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(width * height / 4);
+        if (!format.equals("jpg")) {
+            ImageIO.write(out, "png", bytes);
+            return bytes.toByteArray();
+        }
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality());
+            writer.setOutput(ios);
+            writer.write(null, new IIOImage(out, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String format() {
+        String f = ConfigReader.getProperty("screenshot.format", "jpg").toLowerCase(Locale.ROOT);
+        return f.equals("jpeg") ? "jpg" : f.equals("png") ? "png" : "jpg";
+    }
+
+    private static float quality() {
+        try {
+            return Math.min(1f, Math.max(0.1f, Float.parseFloat(ConfigReader.getProperty("screenshot.quality", "0.8"))));
+        } catch (NumberFormatException e) {
+            return 0.8f;
+        }
+    }
+
+    private static synchronized void index(String time, String name, Path file, Path thumb) throws IOException {
+        if (!indexChecked) {
+            indexChecked = true;
+            // an index from before the thumb column is set aside rather than appended to
+            if (Files.exists(INDEX)) {
+                String first;
+                try (BufferedReader in = Files.newBufferedReader(INDEX, StandardCharsets.UTF_8)) {
+                    first = in.readLine();
+                }
+                if (!INDEX_HEADER.equals(first)) Files.move(INDEX, DIR.resolve("index.old.csv"), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        boolean header = !Files.exists(INDEX);
+        String line = (header ? INDEX_HEADER + System.lineSeparator() : "")
+                + time + "," + name.replace(",", "_") + "," + file.getFileName() + ","
+                + (thumb == null ? "" : thumb.getFileName()) + System.lineSeparator();
+        Files.write(INDEX, line.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String sha256(byte[] data) throws Exception {
+        byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+        StringBuilder sb = new StringBuilder(32);
+        // 128 bits is plenty to tell frames apart
+        for (int i = 0; i < 16; i++) sb.append(String.format("%02x", digest[i]));
+        return sb.toString();
+    }
+
+    // JVM exit: finish what is queued, then report what the pipeline did
+    private static void shutdown() {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS)) {
+                System.err.println("DEBUG: screenshots still being written after " + SHUTDOWN_WAIT_SECONDS + " s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (captures.sum() == 0) return;
+        System.out.println("DEBUG: screenshots - " + captures.sum() + " captured, " + duplicates.sum() + " duplicate frames, "
+                + bytesIn.sum() / 1024 + " KB from the driver, " + bytesOut.sum() / 1024 + " KB written");
+    }
+}
@@ -0,0 +1,154 @@
+package utils;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+
+/**
+ * Logged-in browser state per user for the current suite: cookies plus localStorage and sessionStorage,
+ * captured right after a UI login and restored into later (fresh or pooled) drivers instead of logging in again.
+ * The app's own data (cart under cart.storageKey, cartTotal, orders, lastOrder) is left out of the capture, and
+ * restore only writes the captured keys, so a test's cart is neither wiped nor replaced by the one that was
+ * open at login time.
+ *
+ *   if (!SessionCache.restore(driver, user, isLoggedIn)) {
+ *       ... log in through the UI ...
+ *       SessionCache.capture(driver, user);
+ *   }
+ *
+ * Callers for the same user are serialized on a per-user lock (see lock()), so parallel tests log a user in
+ * through the UI once rather than all at the same time. Cleared when the suite finishes.
+ */
+public class SessionCache {
+    // app data that belongs to the test, not to the login: never captured, never overwritten on restore.
+    // The cart key comes from cart.storageKey; __cartSeeded is CartFixture's marker for the seeded cart.
+    private static final List<String> APP_DATA_KEYS = Arrays.asList("cartTotal", "orders", "lastOrder", "__cartSeeded");
+
+    // args: keys to leave out
+    private static final String READ_STORAGE_JS =
+        "var skip = arguments[0];" +
+        "function dump(s) { var o = {}; for (var i = 0; i < s.length; i++) { var k = s.key(i); if (skip.indexOf(k) < 0) o[k] = s.getItem(k); } return o; }" +
+        "return {local: dump(window.localStorage), session: dump(window.sessionStorage)};";
+    // sets the captured keys only; everything else already in storage (e.g. the test's cart) is kept
+    private static final String WRITE_STORAGE_JS =
+        "var local = arguments[0], session = arguments[1];" +
+        "for (var k in local) window.localStorage.setItem(k, local[k]);" +
+        "for (var k2 in session) window.sessionStorage.setItem(k2, session[k2]);";
+
+    private static final Map<String, Snapshot> sessions = new ConcurrentHashMap<>();
+    private static final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private static int restored;
+    private static int captured;
+
+    private static final class Snapshot {
+        final String origin;
+        final List<Cookie> cookies;
+        final Map<String, String> local;
+        final Map<String, String> session;
+
+        Snapshot(String origin, List<Cookie> cookies, Map<String, String> local, Map<String, String> session) {
+            this.origin = origin;
+            this.cookies = cookies;
+            this.local = local;
+            this.session = session;
+        }
+    }
+
+    /**
+     * Lock for one user's session. Hold it around restore + UI login + capture so that only the first
+     * caller for a user logs in through the UI and the others restore what it captured.
+     */
+    public static ReentrantLock lock(String user) {
+        return locks.computeIfAbsent(user, k -> new ReentrantLock());
+    }
+
+    /** Record the current cookies and storage (minus the app's cart and order keys) of driver as the logged-in state of user. */
+    public static void capture(WebDriver driver, String user) {
+        try {
+            Map<?, ?> raw = (Map<?, ?>) ((JavascriptExecutor) driver).executeScript(READ_STORAGE_JS, appDataKeys());
+            Snapshot s = new Snapshot(origin(driver.getCurrentUrl()), new ArrayList<>(driver.manage().getCookies()),
+                    strings(raw.get("local")), strings(raw.get("session")));
+            sessions.put(user, s);
+            synchronized (SessionCache.class) { captured++; }
+            System.out.println("DEBUG: session captured for " + user + " (" + s.cookies.size() + " cookies, "
+                    + s.local.size() + " local, " + s.session.size() + " session keys)");
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not capture session for " + user + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Put user's captured state into driver and reload. Returns false (driver left on the app's home page) when
+     * nothing is cached for user or loggedIn does not hold afterwards; the caller should log in through the UI then.
+     */
+    public static boolean restore(WebDriver driver, String user, Predicate<WebDriver> loggedIn) {
+        Snapshot s = sessions.get(user);
+        if (s == null) return false;
+        try {
+            // cookies and storage can only be written for the document's own origin
+            if (!s.origin.equals(origin(driver.getCurrentUrl()))) driver.get(s.origin + "/");
+            driver.manage().deleteAllCookies();
+            for (Cookie c : s.cookies) driver.manage().addCookie(c);
+            ((JavascriptExecutor) driver).executeScript(WRITE_STORAGE_JS, s.local, s.session);
+            driver.navigate().refresh();
+            if (loggedIn.test(driver)) {
+                synchronized (SessionCache.class) { restored++; }
+                System.out.println("DEBUG: session restored for " + user);
+                return true;
+            }
+            System.err.println("DEBUG: restored session for " + user + " is not logged in, dropping it");
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not restore session for " + user + ": " + e.getMessage());
+        }
+        sessions.remove(user);
+        return false;
+    }
+
+    /** Forget every captured session (end of suite). */
+    public static void clear() {
+        if (captured > 0) {
+            System.out.println("DEBUG: SessionCache " + captured + " UI logins captured, " + restored + " restored instead of logging in");
+        }
+        sessions.clear();
+        synchronized (SessionCache.class) {
+            captured = 0;
+            restored = 0;
+        }
+    }
+
+    private static List<String> appDataKeys() {
+        List<String> keys = new ArrayList<>(APP_DATA_KEYS);
+        keys.add(ConfigReader.getProperty("cart.storageKey", "cartProducts"));
+        return keys;
+    }
+
+    // scheme://host[:port] of url, "" when it has none (about:blank, data: URLs)
+    static String origin(String url) {
+        try {
+            URI u = URI.create(url);
+            return u.getScheme() == null || u.getRawAuthority() == null ? "" : u.getScheme() + "://" + u.getRawAuthority();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    private static Map<String, String> strings(Object o) {
+        if (!(o instanceof Map)) return Collections.emptyMap();
+        Map<String, String> out = new HashMap<>();
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) o).entrySet()) {
+            out.put(String.valueOf(e.getKey()), e.getValue() == null ? null : String.valueOf(e.getValue()));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,136 @@
+package utils;
+
+import java.io.BufferedWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Chrome trace-event timeline of the run (trace.timeline=true), written to target/timeline.json at exit.
+ * Open it in chrome://tracing or https://ui.perfetto.dev: one track per worker thread, with nested spans for
+ * tests, Cucumber steps, page-object methods, driver commands, waits and pauses.
+ *
+ * Spans are "complete" events (ph X) recorded after the fact from System.nanoTime() pairs, so callers
+ * only need a start time. Page-object spans are derived from the commands: consecutive commands issued
+ * from the same page-object method on a thread are merged into one span.
+ */
+public class Timeline {
+    private static final Path FILE = Paths.get("target", "timeline.json");
+    // JVM start on the nanoTime clock, so spans that began before this class loaded still get ts >= 0
+    private static final long ORIGIN = System.nanoTime()
+            - (System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()) * 1_000_000L;
+
+    private static final Queue<String> events = new ConcurrentLinkedQueue<>();
+    private static final Set<Long> namedThreads = ConcurrentHashMap.newKeySet();
+    // page-object span currently being extended on this thread: [label, start, end]
+    private static final ThreadLocal<Object[]> openPage = new ThreadLocal<>();
+    private static volatile Boolean enabled;
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Timeline::save, "timeline"));
+    }
+
+    public static boolean isEnabled() {
+        if (enabled == null) enabled = Boolean.parseBoolean(ConfigReader.getProperty("trace.timeline", "false"));
+        return enabled;
+    }
+
+    /** Record a finished span on the calling thread's track. args may be null. */
+    public static void complete(String category, String name, long startNanos, long endNanos, Map<String, ?> args) {
+        if (!isEnabled()) return;
+        Thread t = Thread.currentThread();
+        if (namedThreads.add(t.getId())) {
+            events.add("{\"ph\":\"M\",\"pid\":1,\"tid\":" + t.getId() + ",\"name\":\"thread_name\",\"args\":{\"name\":"
+                    + quote(t.getName()) + "}}");
+        }
+        StringBuilder sb = new StringBuilder(160)
+                .append("{\"ph\":\"X\",\"pid\":1,\"tid\":").append(t.getId())
+                .append(",\"cat\":").append(quote(category))
+                .append(",\"name\":").append(quote(name))
+                .append(",\"ts\":").append(micros(startNanos))
+                .append(",\"dur\":").append(Math.max(0, (endNanos - startNanos) / 1000));
+        if (args != null && !args.isEmpty()) {
+            sb.append(",\"args\":{");
+            boolean first = true;
+            for (Map.Entry<String, ?> e : args.entrySet()) {
+                if (e.getValue() == null) continue;
+                if (!first) sb.append(',');
+                sb.append(quote(e.getKey())).append(':').append(quote(String.valueOf(e.getValue())));
+                first = false;
+            }
+            sb.append('}');
+        }
+        events.add(sb.append('}').toString());
+    }
+
+    /**
+     * A driver command issued from page-object method label (null = not from a page object): extends the
+     * open page span when it is the same method, otherwise closes it and opens a new one.
+     */
+    static void pageCommand(String label, long startNanos, long endNanos) {
+        if (!isEnabled()) return;
+        Object[] open = openPage.get();
+        if (open != null && open[0].equals(label)) {
+            open[2] = endNanos;
+            return;
+        }
+        closePage();
+        if (label != null) openPage.set(new Object[] {label, startNanos, endNanos});
+    }
+
+    /** Close the calling thread's open page-object span (end of a test or step). */
+    public static void closePage() {
+        Object[] open = openPage.get();
+        if (open == null) return;
+        openPage.remove();
+        complete("page", (String) open[0], (Long) open[1], (Long) open[2], null);
+    }
+
+    private static long micros(long nanos) {
+        return (nanos - ORIGIN) / 1000;
+    }
+
+    private static String quote(String s) {
+        StringBuilder sb = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    static synchronized void save() {
+        if (events.isEmpty()) return;
+        try {
+            Files.createDirectories(FILE.getParent());
+            int count = 0;
+            try (BufferedWriter w = Files.newBufferedWriter(FILE)) {
+                w.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+                String e;
+                while ((e = events.poll()) != null) {
+                    if (count++ > 0) w.write(",\n");
+                    w.write(e);
+                }
+                w.write("]}");
+            }
+            System.out.println("DEBUG: timeline with " + count + " events written to " + FILE);
+        } catch (Exception e) {
+            System.err.println("DEBUG: could not write " + FILE + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Single condition engine for all waiting in page objects and tests.
+ *
+ * wait.mode=implicit (default) keeps the old behaviour: drivers get the implicit wait their caller asked for
+ * (5 s from DriverFactory, 10 s in some tests) and only the probes below run with it temporarily switched off.
+ * wait.mode=explicit sets the implicit wait to zero on every driver; anything that needs to wait says so via
+ * until(...) with its own budget, and "is it absent?" probes return immediately instead of burning the timeout.
+ *
+ * Every empty probe is counted against the implicit wait it would otherwise have cost; the total is
+ * printed at JVM exit and written to target/wait-report.txt together with per-condition wait times.
+ */
+public class Waits {
+    public static final Duration DEFAULT_BUDGET = Duration.ofSeconds(8);
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+    private static final Duration DEFAULT_LEGACY_IMPLICIT = Duration.ofSeconds(5);
+    private static final Path REPORT_FILE = Paths.get("target", "wait-report.txt");
+
+    // implicit wait each driver would have had before this engine (what an empty probe used to cost)
+    private static final Map<WebDriver, Duration> legacyImplicit = Collections.synchronizedMap(new WeakHashMap<>());
+    // implicit wait each driver is running with right now, as last set through this class (saves a round trip to read it)
+    private static final Map<WebDriver, Duration> currentImplicit = Collections.synchronizedMap(new WeakHashMap<>());
+    // > 0 while the calling thread is already running with the implicit wait switched off
+    private static final ThreadLocal<int[]> zeroDepth = ThreadLocal.withInitial(() -> new int[1]);
+
+    private static final LongAdder probes = new LongAdder();
+    private static final LongAdder emptyProbes = new LongAdder();
+    private static final LongAdder recoveredNanos = new LongAdder();
+    private static final LongAdder timeouts = new LongAdder();
+    private static final Map<String, LongAdder[]> conditionStats = new ConcurrentHashMap<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Waits::report, "wait-report"));
+    }
+
+    public static boolean isExplicitMode() {
+        return "explicit".equalsIgnoreCase(ConfigReader.getProperty("wait.mode", "implicit"));
+    }
+
+    /**
+     * Apply the implicit wait a caller used to hard-code: legacySeconds in implicit mode, zero in explicit mode.
+     * Use this instead of driver.manage().timeouts().implicitlyWait(...).
+     */
+    public static void applyImplicitWait(WebDriver driver, int legacySeconds) {
+        Duration legacy = Duration.ofSeconds(legacySeconds);
+        legacyImplicit.put(driver, legacy);
+        Duration applied = isExplicitMode() ? Duration.ZERO : legacy;
+        driver.manage().timeouts().implicitlyWait(applied);
+        currentImplicit.put(driver, applied);
+    }
+
+    /**
+     * Wait up to budget for condition to return a non-null, non-false value and return it.
+     * Stale elements and missing elements are retried; throws TimeoutException (message = description) when the budget runs out.
+     */
+    public static <T> T until(WebDriver driver, Duration budget, String description, Function<? super WebDriver, T> condition) {
+        JfrEvents.Wait event = new JfrEvents.Wait();
+        event.begin();
+        long start = System.nanoTime();
+        boolean timedOut = false;
+        try {
+            return withoutImplicitWait(driver, () -> {
+                WebDriverWait wait = new WebDriverWait(driver, budget, POLL_INTERVAL);
+                wait.ignoring(StaleElementReferenceException.class);
+                wait.withMessage(description);
+                return wait.until(condition);
+            });
+        } catch (TimeoutException e) {
+            timedOut = true;
+            throw e;
+        } finally {
+            record(event, description, budget, System.nanoTime() - start, timedOut);
+        }
+    }
+
+    /** Like until(...), but returns null on timeout for callers that treat "never happened" as an answer. */
+    public static <T> T tryUntil(WebDriver driver, Duration budget, String description, Function<? super WebDriver, T> condition) {
+        try {
+            return until(driver, budget, description, condition);
+        } catch (TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A fixed budget bound to one driver, for code that used to keep a WebDriverWait around:
+     *
+     *   Waits.Budget wait = Waits.budget(driver, Duration.ofSeconds(12), "confirmation flow");
+     *   wait.until(ExpectedConditions.elementToBeClickable(downloadPdf));
+     *
+     * Every call is an until(...) under the label, so it is counted and runs with the implicit wait off.
+     */
+    public static Budget budget(WebDriver driver, Duration budget, String label) {
+        return new Budget(driver, budget, label);
+    }
+
+    public static final class Budget {
+        private final WebDriver driver;
+        private final Duration budget;
+        private final String label;
+
+        private Budget(WebDriver driver, Duration budget, String label) {
+            this.driver = driver;
+            this.budget = budget;
+            this.label = label;
+        }
+
+        public <T> T until(Function<? super WebDriver, T> condition) {
+            return Waits.until(driver, budget, label, condition);
+        }
+    }
+
+    /** Zero-wait lookup: whatever matches right now, never waits for the implicit timeout. */
+    public static List<WebElement> findAll(WebDriver driver, By by) {
+        return findAll(driver, driver, by);
+    }
+
+    /** Zero-wait lookup scoped to an element (or the driver) of the given session. */
+    public static List<WebElement> findAll(WebDriver driver, SearchContext scope, By by) {
+        probes.increment();
+        long start = System.nanoTime();
+        List<WebElement> found = withoutImplicitWait(driver, () -> scope.findElements(by));
+        if (found.isEmpty()) {
+            emptyProbes.increment();
+            long saved = legacyImplicit.getOrDefault(driver, DEFAULT_LEGACY_IMPLICIT).toNanos() - (System.nanoTime() - start);
+            if (saved > 0) recoveredNanos.add(saved);
+        }
+        return found;
+    }
+
+    public static boolean isAbsent(WebDriver driver, By by) {
+        return findAll(driver, by).isEmpty();
+    }
+
+    public static boolean isPresent(WebDriver driver, By by) {
+        return !findAll(driver, by).isEmpty();
+    }
+
+    /** Implicit-wait time recovered so far by probes that came back empty. */
+    public static long getRecoveredMillis() {
+        return recoveredNanos.sum() / 1_000_000;
+    }
+
+    /**
+     * Fixed pause for the few places that still need one (instead of Thread.sleep), so pauses show up
+     * in the wait report and on the timeline.
+     */
+    public static void pause(long millis) {
+        JfrEvents.Wait event = new JfrEvents.Wait();
+        event.begin();
+        long start = System.nanoTime();
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        record(event, "pause", "pause " + millis + " ms", Duration.ofMillis(millis), System.nanoTime() - start, false);
+    }
+
+    // per-condition totals for the report, Timeline span and JFR event (begun by the caller); also fed by DomWaits
+    static void record(JfrEvents.Wait event, String description, Duration budget, long nanos, boolean timedOut) {
+        record(event, "wait", description, budget, nanos, timedOut);
+    }
+
+    private static void record(JfrEvents.Wait event, String category, String description, Duration budget, long nanos, boolean timedOut) {
+        LongAdder[] stats = conditionStats.computeIfAbsent(description,
+                k -> new LongAdder[] {new LongAdder(), new LongAdder(), new LongAdder()});
+        stats[0].increment();
+        stats[1].add(nanos);
+        if (timedOut) {
+            stats[2].increment();
+            timeouts.increment();
+        }
+        if (Timeline.isEnabled()) {
+            long end = System.nanoTime();
+            Timeline.complete(category, description, end - nanos, end, timedOut ? Map.of("timedOut", true) : null);
+        }
+        if (event.shouldCommit()) {
+            event.kind = category;
+            event.condition = description;
+            event.budget = budget.toMillis();
+            event.timedOut = timedOut;
+            event.commit();
+        }
+    }
+
+    // runs action with the implicit wait at zero; costs two round trips (off, back on) only when it is not zero already
+    private static <T> T withoutImplicitWait(WebDriver driver, Supplier<T> action) {
+        int[] depth = zeroDepth.get();
+        if (isExplicitMode() || depth[0] > 0) return action.get();
+        Duration restore = currentImplicit.get(driver);
+        if (restore == null) {
+            // set outside applyImplicitWait: read it once, then trust the cache
+            restore = driver.manage().timeouts().getImplicitWaitTimeout();
+            currentImplicit.put(driver, restore);
+        }
+        if (restore.isZero()) return action.get();
+        depth[0]++;
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        try {
+            return action.get();
+        } finally {
+            depth[0]--;
+            try { driver.manage().timeouts().implicitlyWait(restore); } catch (Exception ignored) {}
+        }
+    }
+
+    static synchronized void report() {
+        if (probes.sum() == 0 && conditionStats.isEmpty()) return;
+        List<String> lines = new ArrayList<>();
+        lines.add("wait.mode=" + (isExplicitMode() ? "explicit" : "implicit"));
+        lines.add("probes=" + probes.sum() + " empty=" + emptyProbes.sum()
+                + " recovered=" + String.format("%.1f s", recoveredNanos.sum() / 1e9));
+        lines.add("condition timeouts=" + timeouts.sum());
+        List<Map.Entry<String, LongAdder[]>> entries = new ArrayList<>(conditionStats.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue()[1].sum(), a.getValue()[1].sum()));
+        for (Map.Entry<String, LongAdder[]> e : entries) {
+            LongAdder[] s = e.getValue();
+            lines.add(String.format("  %-50s calls=%d total=%d ms timeouts=%d",
+                    e.getKey(), s[0].sum(), s[1].sum() / 1_000_000, s[2].sum()));
+        }
+        System.out.println("DEBUG: Waits - " + lines.get(1) + ", " + lines.get(2) + " (" + lines.get(0) + ")");
+        try {
+            Files.createDirectories(REPORT_FILE.getParent());
+            Files.write(REPORT_FILE, lines);
+        } catch (IOException e) {
+            System.err.println("DEBUG: could not write " + REPORT_FILE + ": " + e.getMessage());
+        }
+    }
+}
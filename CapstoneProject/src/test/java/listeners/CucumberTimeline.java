@@ -0,0 +1,80 @@
+package listeners;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestCaseStarted;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+import utils.JfrEvents;
+import utils.Timeline;
+
+import java.util.Map;
+
+/**
+ * Cucumber plugin (see runners.TestRunner) that puts scenario and step spans from EndToEndSteps on the Timeline
+ * and records them as JfrEvents.TestRun / JfrEvents.Step. Events arrive on the thread running the scenario,
+ * so the spans land on that thread's track.
+ */
+public class CucumberTimeline implements ConcurrentEventListener {
+    private static final ThreadLocal<Long> scenarioStart = new ThreadLocal<>();
+    private static final ThreadLocal<Long> stepStart = new ThreadLocal<>();
+    private static final ThreadLocal<JfrEvents.TestRun> scenarioEvent = new ThreadLocal<>();
+    private static final ThreadLocal<JfrEvents.Step> stepEvent = new ThreadLocal<>();
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseStarted.class, e -> {
+            scenarioStart.set(System.nanoTime());
+            JfrEvents.TestRun event = new JfrEvents.TestRun();
+            event.begin();
+            scenarioEvent.set(event);
+        });
+        publisher.registerHandlerFor(TestCaseFinished.class, this::scenarioFinished);
+        publisher.registerHandlerFor(TestStepStarted.class, e -> {
+            if (!(e.getTestStep() instanceof PickleStepTestStep)) return;
+            stepStart.set(System.nanoTime());
+            JfrEvents.Step event = new JfrEvents.Step();
+            event.begin();
+            stepEvent.set(event);
+        });
+        publisher.registerHandlerFor(TestStepFinished.class, this::stepFinished);
+    }
+
+    private void scenarioFinished(TestCaseFinished e) {
+        Long start = scenarioStart.get();
+        JfrEvents.TestRun event = scenarioEvent.get();
+        if (start == null || event == null) return;
+        scenarioStart.remove();
+        scenarioEvent.remove();
+        String status = e.getResult().getStatus().name();
+        if (Timeline.isEnabled()) {
+            Timeline.complete("scenario", e.getTestCase().getName(), start, System.nanoTime(), Map.of("status", status));
+        }
+        event.name = e.getTestCase().getName();
+        event.testClass = e.getTestCase().getUri().toString();
+        event.status = status;
+        event.commit();
+    }
+
+    private void stepFinished(TestStepFinished e) {
+        Long start = stepStart.get();
+        JfrEvents.Step event = stepEvent.get();
+        if (start == null || event == null || !(e.getTestStep() instanceof PickleStepTestStep)) return;
+        stepStart.remove();
+        stepEvent.remove();
+        PickleStepTestStep step = (PickleStepTestStep) e.getTestStep();
+        String text = step.getStep().getKeyword() + step.getStep().getText();
+        String status = e.getResult().getStatus().name();
+        if (Timeline.isEnabled()) {
+            Timeline.closePage();
+            Timeline.complete("step", text, start, System.nanoTime(), Map.of("status", status, "line", step.getStep().getLine()));
+        }
+        JfrEvents.closePage();
+        event.step = text;
+        event.line = step.getStep().getLine();
+        event.status = status;
+        event.commit();
+    }
+}
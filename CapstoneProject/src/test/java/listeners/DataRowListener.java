@@ -0,0 +1,105 @@
+package listeners;
+
+import org.testng.IReporter;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.ISuiteResult;
+import org.testng.ITestContext;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import org.testng.xml.XmlSuite;
+import utils.DataRows;
+import utils.ExcelRows;
+import utils.ReportUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Row bookkeeping for data providers wrapped in DataRows.numbered, registered from testng.xml.
+ * - tags every invocation with its sheet row (DataRows.ROW_ATTRIBUTE) as it starts, so @AfterMethod can name
+ *   its failure screenshot after the row and store it on the result (DataRows.SCREENSHOT_ATTRIBUTE)
+ * - after the suite, writes one Extent test per row in sheet order, whatever order the parallel rows finished in,
+ *   with the row's status, failure and screenshot
+ * - when the suite finishes, drops the numbers of rows that never started (skipped before onTestStart) and
+ *   closes Excel readers the data providers stopped pulling early (ExcelRows.closeAll)
+ */
+public class DataRowListener implements ITestListener, ISuiteListener, IReporter {
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        int row = DataRows.take(result.getParameters());
+        if (row > 0) result.setAttribute(DataRows.ROW_ATTRIBUTE, row);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        int left = DataRows.clear();
+        if (left > 0) System.out.println("DEBUG: " + left + " data rows of " + suite.getName() + " never started");
+        int readers = ExcelRows.closeAll();
+        if (readers > 0) System.out.println("DEBUG: closed " + readers + " Excel readers that were not read to the end");
+    }
+
+    @Override
+    public void generateReport(List<XmlSuite> xmlSuites, List<ISuite> suites, String outputDirectory) {
+        // "Class.method" -> rows of that data-driven method
+        Map<String, List<ITestResult>> methods = new TreeMap<>();
+        for (ISuite suite : suites) {
+            for (ISuiteResult suiteResult : suite.getResults().values()) {
+                ITestContext context = suiteResult.getTestContext();
+                collect(methods, context.getPassedTests().getAllResults());
+                collect(methods, context.getFailedTests().getAllResults());
+                collect(methods, context.getSkippedTests().getAllResults());
+            }
+        }
+        if (methods.isEmpty()) return;
+
+        for (Map.Entry<String, List<ITestResult>> method : methods.entrySet()) {
+            List<ITestResult> rows = method.getValue();
+            rows.sort(Comparator.comparingInt(r -> (Integer) r.getAttribute(DataRows.ROW_ATTRIBUTE)));
+            int failed = 0;
+            for (ITestResult result : rows) {
+                if (result.getStatus() != ITestResult.SUCCESS) failed++;
+                report(method.getKey(), result);
+            }
+            System.out.println("DEBUG: " + method.getKey() + " ran " + rows.size() + " rows, " + failed + " not passed");
+        }
+        ReportUtils.flushReports();
+    }
+
+    private static void collect(Map<String, List<ITestResult>> methods, Iterable<ITestResult> results) {
+        for (ITestResult result : results) {
+            if (!(result.getAttribute(DataRows.ROW_ATTRIBUTE) instanceof Integer)) continue;
+            String name = result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+            methods.computeIfAbsent(name, k -> new ArrayList<>()).add(result);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void report(String method, ITestResult result) {
+        Object row = result.getAttribute(DataRows.ROW_ATTRIBUTE);
+        String params = Arrays.toString(result.getParameters());
+        ReportUtils.createTest(method + " [row " + row + "] " + params);
+        long millis = result.getEndMillis() - result.getStartMillis();
+        if (result.getStatus() == ITestResult.SUCCESS) {
+            ReportUtils.logPass("Passed in " + millis + " ms");
+        } else if (result.getStatus() == ITestResult.FAILURE) {
+            Throwable t = result.getThrowable();
+            ReportUtils.logFail("Failed after " + millis + " ms: " + (t != null ? t.getMessage() : "no exception recorded"));
+        } else {
+            Throwable t = result.getThrowable();
+            ReportUtils.logInfo("Skipped" + (t != null ? ": " + t.getMessage() : ""));
+        }
+        Object screenshot = result.getAttribute(DataRows.SCREENSHOT_ATTRIBUTE);
+        if (screenshot instanceof CompletableFuture) {
+            ReportUtils.attachScreenshot((CompletableFuture<Path>) screenshot, "Row " + row + " failure");
+        }
+        ReportUtils.endTest();
+    }
+}
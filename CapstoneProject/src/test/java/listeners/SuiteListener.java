@@ -0,0 +1,59 @@
+package listeners;
+
+import org.testng.IAlterSuiteListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+import org.testng.xml.XmlSuite;
+import utils.ConfigReader;
+import utils.DriverBinaries;
+import utils.DriverFactory;
+import utils.HttpRecorder;
+import utils.LocalStorefront;
+import utils.SessionCache;
+
+import java.util.List;
+
+/**
+ * Suite-level hooks registered from testng.xml.
+ * - applies the configured parallel thread count (parallel.threads) to parallel suites, and to parallel data
+ *   providers, which share one pool of that size so the row shards never hold more browsers than that
+ * - pins the driver binary once before any test starts, reporting the time the manifest saved
+ * - starts the local storefront before the suite (storefront.local=true) and stops it afterwards
+ * - quits any browser a test thread left behind once the suite is done
+ * - flushes the HTTP record/replay archive (http.mode) so the next suite can replay it
+ * - drops the logged-in sessions captured for LoginPage.loginAs
+ */
+public class SuiteListener implements IAlterSuiteListener, ISuiteListener {
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        // only override testng.xml when the thread count was configured explicitly
+        if (ConfigReader.getProperty("parallel.threads", null) == null) return;
+
+        int threads = DriverFactory.getThreadCount();
+        for (XmlSuite suite : suites) {
+            suite.setDataProviderThreadCount(threads);
+            suite.setShareThreadPoolForDataProviders(true);
+            if (suite.getParallel() != null && suite.getParallel() != XmlSuite.ParallelMode.NONE) {
+                suite.setThreadCount(threads);
+                System.out.println("DEBUG: suite '" + suite.getName() + "' running " + suite.getParallel() + " on " + threads + " threads");
+            }
+        }
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        String browser = suite.getParameter("browser");
+        DriverBinaries.resolve(browser != null ? browser : ConfigReader.getProperty("browser", "chrome"));
+        if (LocalStorefront.isEnabled()) LocalStorefront.start();
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        System.out.println("DEBUG: " + DriverBinaries.getSkippedCalls() + " driver resolution calls skipped this suite");
+        DriverFactory.quitAllDrivers();
+        HttpRecorder.save();
+        SessionCache.clear();
+        LocalStorefront.stop();
+    }
+}
@@ -0,0 +1,112 @@
+package listeners;
+
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ITestListener;
+import org.testng.ITestResult;
+import utils.CommandTrace;
+import utils.JfrEvents;
+import utils.ReportUtils;
+import utils.Timeline;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Test-level hooks registered from testng.xml.
+ * - brackets every test method for CommandTrace, so driver commands are accounted to the test that issued them
+ * - prints the per-page-object-method command table when the test ends and attaches it to the current Extent test
+ * - records a test span on the worker thread's Timeline track and a JfrEvents.TestRun event
+ * - ends the thread's current Extent test once the test's @AfterMethod methods have run (teardown logging still
+ *   lands on it), so the next test on this worker cannot log into it
+ */
+public class TraceListener implements ITestListener, IInvokedMethodListener {
+    private static final String START_ATTRIBUTE = "timeline.start";
+    private static final String JFR_ATTRIBUTE = "jfr.event";
+    // @AfterMethod invocations still to come before the worker's Extent test is ended
+    private static final ThreadLocal<Integer> afterMethodsLeft = new ThreadLocal<>();
+
+    @Override
+    public void onTestStart(ITestResult result) {
+        result.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        JfrEvents.TestRun event = new JfrEvents.TestRun();
+        event.begin();
+        result.setAttribute(JFR_ATTRIBUTE, event);
+        if (!CommandTrace.isEnabled()) return;
+        String name = result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+        if (result.getParameters().length > 0) name += Arrays.toString(result.getParameters());
+        CommandTrace.beginTest(name);
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        report(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        report(result);
+    }
+
+    @Override
+    public void onTestSkipped(ITestResult result) {
+        report(result);
+    }
+
+    private void report(ITestResult result) {
+        String status = result.getStatus() == ITestResult.SUCCESS ? "pass" : result.getStatus() == ITestResult.FAILURE ? "fail" : "skip";
+        String parameters = result.getParameters().length > 0 ? Arrays.toString(result.getParameters()) : null;
+        Object start = result.getAttribute(START_ATTRIBUTE);
+        if (Timeline.isEnabled() && start != null) {
+            Timeline.closePage();
+            Map<String, Object> args = new LinkedHashMap<>();
+            args.put("class", result.getTestClass().getRealClass().getName());
+            args.put("status", status);
+            args.put("parameters", parameters);
+            Timeline.complete("test", result.getMethod().getMethodName(), (Long) start, System.nanoTime(), args);
+        }
+        Object event = result.getAttribute(JFR_ATTRIBUTE);
+        if (event instanceof JfrEvents.TestRun) {
+            JfrEvents.closePage();
+            JfrEvents.TestRun run = (JfrEvents.TestRun) event;
+            run.name = result.getMethod().getMethodName();
+            run.testClass = result.getTestClass().getRealClass().getName();
+            run.parameters = parameters;
+            run.status = status;
+            run.commit();
+        }
+        if (CommandTrace.isEnabled()) logCommands(result);
+        // TestNG reports the outcome before @AfterMethod runs; keep the test attached for the teardown's logging
+        int afterMethods = result.getMethod().getTestClass().getAfterTestMethods().length;
+        if (afterMethods == 0) {
+            ReportUtils.endTest();
+        } else {
+            afterMethodsLeft.set(afterMethods);
+        }
+    }
+
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.getTestMethod().isAfterMethodConfiguration()) return;
+        Integer left = afterMethodsLeft.get();
+        if (left == null) return;
+        if (left > 1) {
+            afterMethodsLeft.set(left - 1);
+            return;
+        }
+        afterMethodsLeft.remove();
+        ReportUtils.endTest();
+    }
+
+    private void logCommands(ITestResult result) {
+        String[][] table = CommandTrace.endTest();
+        if (table == null) return;
+        StringBuilder sb = new StringBuilder("DEBUG: driver commands for " + result.getMethod().getMethodName() + ":");
+        for (String[] row : table) {
+            sb.append(System.lineSeparator()).append(String.format("  %-45s %8s %10s %10s %10s", (Object[]) row));
+        }
+        System.out.println(sb);
+        ReportUtils.logTable(table);
+    }
+}
@@ -1,5 +1,4 @@
 package runners;
-import java.time.Duration;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -7,14 +6,18 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import utils.CommandTrace;
+import utils.DriverBinaries;
+import utils.LocalStorefront;
+import utils.Waits;
 @CucumberOptions(
    features = "src/test/resources/features",
    glue = {"stepDefinitions"},
    plugin = {
        "pretty",
        "html:target/cucumber-reports.html",
-       "json:target/cucumber.json"
+       "json:target/cucumber.json",
+       "listeners.CucumberTimeline"
    },
    monochrome = true
 )
@@ -22,11 +25,13 @@ public class TestRunner extends AbstractTestNGCucumberTests {
 	 public static WebDriver driver;
 	    @BeforeClass(alwaysRun = true)
 	    public void globalSetUp() {
-	        WebDriverManager.chromedriver().setup();
+	        DriverBinaries.resolve("chrome");
+	        if (LocalStorefront.isEnabled()) LocalStorefront.start();
 	        ChromeOptions options = new ChromeOptions();
-	        driver = new ChromeDriver(options);
+	        // decorated so step commands show up in CommandTrace / Timeline when enabled
+	        driver = CommandTrace.decorate(new ChromeDriver(options));
 	        driver.manage().window().maximize();
-	        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+	        Waits.applyImplicitWait(driver, 10);
 	    }
 	    @AfterClass(alwaysRun = true)
 	    public void globalTearDown() {
@@ -34,5 +39,6 @@ public class TestRunner extends AbstractTestNGCucumberTests {
 	            driver.quit();
 	            driver = null;
 	        }
+	        LocalStorefront.stop();
 	    }
 }
@@ -8,28 +8,28 @@ import pages.ProductPage;
 import pages.CartPage;
 import pages.CheckoutPage;
 import runners.TestRunner;
+import utils.ConfigReader;
+import utils.Waits;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 public class EndToEndSteps {
    WebDriver driver = TestRunner.driver;
-   WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(12));
+   Waits.Budget wait = Waits.budget(driver, Duration.ofSeconds(12), "end-to-end steps");
    LoginPage loginPage = new LoginPage(driver);
    ProductPage productPage = new ProductPage(driver);
    CartPage cartPage = new CartPage(driver);
    CheckoutPage checkoutPage = new CheckoutPage(driver);
    @Given("user launches browser")
    public void user_launches_browser() {
-       driver.get("https://bstackdemo.com/");
+       driver.get(ConfigReader.getProperty("url"));
        driver.manage().window().maximize();
        wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
    }
    @And("user logs in with {string} and {string}")
    public void user_logs_in_with_and(String username, String password) {
-       loginPage.openLoginForm();
-       loginPage.selectUsername(username);
-       loginPage.selectPassword(password);
-       loginPage.clickLogin();
+       // restores the session captured by the first UI login of this user in the suite
+       loginPage.loginAs(username, password);
        // ✅ More robust post-login wait
        wait.until(d ->
            d.findElements(By.xpath("//*[contains(text(),'" + username + "')]")).size() > 0
@@ -59,7 +59,7 @@ public class EndToEndSteps {
        // Ensure cart has at least one item
        wait.until(ExpectedConditions.numberOfElementsToBeMoreThan(cartItems, 0));
        // Click remove button (use JS if normal click fails)
-       WebElement remove = driver.findElement(removeBtn);
+       WebElement remove = wait.until(ExpectedConditions.presenceOfElementLocated(removeBtn));
        try {
            remove.click();
        } catch (Exception e) {
@@ -74,7 +74,7 @@ public class EndToEndSteps {
    }
    @And("user proceeds to checkout")
    public void user_proceeds_to_checkout() {
-       driver.get("https://bstackdemo.com/checkout");
+       driver.get(ConfigReader.getUrl("checkout"));
        checkoutPage.waitForForm();
    }
    @And("user fills shipping details")
@@ -127,7 +127,7 @@ public class EndToEndSteps {
                        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", menus.get(0));
                    }
                    // short wait for menu contents to appear
-                   try { Thread.sleep(500); } catch (InterruptedException ignored) {}
+                   Waits.pause(500);
                    // attempt logout locators again
                    for (By loc : logoutLocators) {
                        List<WebElement> els = driver.findElements(loc);
@@ -147,9 +147,9 @@ public class EndToEndSteps {
        }
        // final fallback: navigate to home page and attempt logout (some apps show logout on homepage)
        if (!clicked) {
-           driver.get("https://bstackdemo.com/");
+           driver.get(ConfigReader.getProperty("url"));
            // small wait for page load
-           try { Thread.sleep(800); } catch (InterruptedException ignored) {}
+           Waits.pause(800);
            for (By loc : logoutLocators) {
                List<WebElement> els = driver.findElements(loc);
                if (!els.isEmpty()) {
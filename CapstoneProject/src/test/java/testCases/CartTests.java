@@ -2,17 +2,21 @@
 package testCases;
 
 import org.testng.Assert;
+import org.testng.ITestResult;
 import org.testng.annotations.*;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import pages.ProductPage;
 import pages.CartPage;
+import utils.ConfigReader;
 import utils.DriverFactory;
+import utils.Waits;
 
 import java.time.Duration;
+import java.util.List;
 
 public class CartTests {
     WebDriver driver;
@@ -24,10 +28,9 @@ public class CartTests {
         driver = DriverFactory.initDriver("chrome");
 
         // navigate to AUT and wait for product tiles
-        driver.get("https://bstackdemo.com/");
+        driver.get(ConfigReader.getProperty("url"));
         driver.manage().window().maximize();
-        new WebDriverWait(driver, Duration.ofSeconds(10))
-            .until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
+        Waits.until(driver, Duration.ofSeconds(10), "products loaded", ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
 
         productPage = new ProductPage(driver);
         cartPage = new CartPage(driver);
@@ -43,8 +46,8 @@ public class CartTests {
 
         // ensure cart visible (try opening cart if needed)
         try {
-            if (driver.findElements(By.cssSelector("div.float-cart")).size() == 0) {
-                if (driver.findElements(By.cssSelector("div.float-cart__header")).size() > 0)
+            if (Waits.isAbsent(driver, By.cssSelector("div.float-cart"))) {
+                if (Waits.isPresent(driver, By.cssSelector("div.float-cart__header")))
                     driver.findElement(By.cssSelector("div.float-cart__header")).click();
             }
         } catch (Exception ignored) {}
@@ -77,15 +80,14 @@ public class CartTests {
 
         // ensure cart visible
         try {
-            if (driver.findElements(By.cssSelector("div.float-cart")).size() == 0) {
-                if (driver.findElements(By.cssSelector("div.float-cart__header")).size() > 0)
+            if (Waits.isAbsent(driver, By.cssSelector("div.float-cart"))) {
+                if (Waits.isPresent(driver, By.cssSelector("div.float-cart__header")))
                     driver.findElement(By.cssSelector("div.float-cart__header")).click();
             }
         } catch (Exception ignored) {}
 
         // wait a moment for cart items
-        new WebDriverWait(driver, Duration.ofSeconds(8))
-            .until(d -> d.findElements(By.cssSelector("div.float-cart .shelf-item")).size() > 0);
+        Waits.until(driver, Duration.ofSeconds(8), "cart has items", d -> d.findElements(By.cssSelector("div.float-cart .shelf-item")).size() > 0);
 
         Assert.assertTrue(cartPage.isItemPresent(productName), "Item not present before removal");
 
@@ -105,8 +107,9 @@ public class CartTests {
 
         // Ensure cart is visible
         try {
-            if (driver.findElements(By.cssSelector("div.float-cart")).isEmpty()) {
-                driver.findElement(By.cssSelector("div.float-cart__header")).click();
+            if (Waits.isAbsent(driver, By.cssSelector("div.float-cart"))) {
+                List<WebElement> header = Waits.findAll(driver, By.cssSelector("div.float-cart__header"));
+                if (!header.isEmpty()) header.get(0).click();
             }
         } catch (Exception ignored) {}
 
@@ -117,8 +120,7 @@ public class CartTests {
         Assert.assertTrue(added2, "Second product not added: " + second);
 
         // Wait for cart update
-        new WebDriverWait(driver, Duration.ofSeconds(8))
-                .until(d -> cartPage.isItemPresent(second));
+        Waits.until(driver, Duration.ofSeconds(8), "second item in cart", d -> cartPage.isItemPresent(second));
 
         // Final assertions: both items present
         Assert.assertTrue(cartPage.isItemPresent(first), "First item missing after adding second");
@@ -129,7 +131,11 @@ public class CartTests {
 
 
     @AfterMethod
-    public void tearDown() {
+    public void tearDown(ITestResult result) {
+        // grab the failing page before the browser goes; the file is written in the background
+        if (result.getStatus() == ITestResult.FAILURE && driver != null && cartPage != null) {
+            cartPage.captureFailure(driver, "CartFailed_" + result.getMethod().getMethodName());
+        }
         DriverFactory.quitDriver();
     }
 }
@@ -8,11 +8,12 @@ import org.openqa.selenium.WebDriver;
 import pages.CheckoutPage;
 import pages.LoginPage;
 import pages.ProductPage;
+import utils.ConfigReader;
 import utils.DriverFactory;
+import utils.Waits;
 
 import java.time.Duration;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 public class CheckoutTest {
     WebDriver driver;
@@ -25,12 +26,11 @@ public class CheckoutTest {
         driver = DriverFactory.initDriver("chrome");
 
         // ensure we are on the application home page first
-        driver.get("https://bstackdemo.com/");
+        driver.get(ConfigReader.getProperty("url"));
         driver.manage().window().maximize();
 
         // wait for product list to be present before creating page objects
-        WebDriverWait shortWait = new WebDriverWait(driver, Duration.ofSeconds(10));
-        shortWait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
+                Waits.until(driver, Duration.ofSeconds(10), "products loaded", ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
 
         // create page objects after navigation
         productPage = new ProductPage(driver);
@@ -44,7 +44,7 @@ public class CheckoutTest {
      */
     @Test
     public void checkoutShippingAndSubmitTest() throws InterruptedException {
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        Waits.Budget wait = Waits.budget(driver, Duration.ofSeconds(10), "checkout flow");
 
         // ensure signed-in: open modal and pick demo user (your LoginPage handles dropdown)
         loginPage.openLoginForm();
@@ -62,7 +62,7 @@ public class CheckoutTest {
         }
 
         // wait a brief moment to ensure page is stable
-        Thread.sleep(500);
+        Waits.pause(500);
 
         // add first product to cart (ProductPage prints debug count if no products)
         productPage.addFirstProductToCart();
@@ -85,7 +85,7 @@ public class CheckoutTest {
         );
 
         // navigate to checkout page (your existing flow does this)
-        driver.get("https://bstackdemo.com/checkout");
+        driver.get(ConfigReader.getUrl("checkout"));
 
         // wait for checkout form to appear using your CheckoutPage helper
         checkoutPage.waitForForm();
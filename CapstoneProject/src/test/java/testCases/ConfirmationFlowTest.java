@@ -9,7 +9,10 @@ import pages.LoginPage;
 import pages.ProductPage;
 import pages.CartPage;
 import pages.CheckoutPage;
+import utils.ConfigReader;
 import utils.DriverFactory;
+import utils.LocatorChain;
+import utils.Waits;
 
 import java.nio.file.*;
 import java.time.Duration;
@@ -19,7 +22,7 @@ import java.util.stream.Stream;
 
 public class ConfirmationFlowTest {
     WebDriver driver;
-    WebDriverWait wait;
+    Waits.Budget wait;
     LoginPage loginPage;
     ProductPage productPage;
     CartPage cartPage;
@@ -35,10 +38,10 @@ public class ConfirmationFlowTest {
         // use the download-enabled driver
         driver = DriverFactory.initDriverWithDownload(downloadDir.toAbsolutePath().toString());
         driver.manage().window().maximize();
-        wait = new WebDriverWait(driver, Duration.ofSeconds(12));
+        wait = Waits.budget(driver, Duration.ofSeconds(12), "confirmation flow");
 
         // start at home
-        driver.get("https://bstackdemo.com/");
+        driver.get(ConfigReader.getProperty("url"));
         wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
 
         loginPage = new LoginPage(driver);
@@ -50,10 +53,8 @@ public class ConfirmationFlowTest {
     @Test
     public void fullCheckoutFlow_login_add_checkout_confirm_download_continue_checkNavs_logout() throws Exception {
         // 1) Login
-        loginPage.openLoginForm();
-        loginPage.selectUsername("demouser");
-        loginPage.selectPassword("testingisfun99");
-        loginPage.clickLogin();
+        // restores the session captured by the first UI login of this user in the suite
+        loginPage.loginAs("demouser", "testingisfun99");
 
         wait.until(d -> d.findElements(By.xpath("//*[contains(text(),'demouser') or contains(.,'Logout') or contains(.,'logout')]")).size() > 0);
 
@@ -63,10 +64,10 @@ public class ConfirmationFlowTest {
         Assert.assertTrue(added, "Failed to add product: " + productName);
 
         // 3) Ensure cart open
-        if (driver.findElements(By.cssSelector("div.float-cart")).isEmpty()) {
+        if (Waits.isAbsent(driver, By.cssSelector("div.float-cart"))) {
             String[] toggles = new String[] { "div.float-cart__header", "div.float-cart__toggle, .cart-toggle, .bag, button.float-cart__open", "header .bag" };
             for (String t : toggles) {
-                if (driver.findElements(By.cssSelector(t)).size() > 0) {
+                if (Waits.isPresent(driver, By.cssSelector(t))) {
                     driver.findElement(By.cssSelector(t)).click();
                     break;
                 }
@@ -84,7 +85,7 @@ public class ConfirmationFlowTest {
                 if (b.isDisplayed() && b.isEnabled()) { b.click(); clicked = true; break; }
             } catch (Exception ignored) {}
         }
-        if (!clicked) driver.get("https://bstackdemo.com/checkout");
+        if (!clicked) driver.get(ConfigReader.getUrl("checkout"));
 
         // 5) Fill shipping
         checkoutPage.waitForForm();
@@ -122,31 +123,26 @@ public class ConfirmationFlowTest {
                 if (maybe.isPresent()) {
                     found = maybe.get();
                     long size1 = Files.size(found);
-                    Thread.sleep(300);
+                    Waits.pause(300);
                     long size2 = Files.size(found);
                     if (size2 >= size1 && size2 > 0) break;
                 }
             } catch (NoSuchFileException nsf) {
                 // not yet created
             }
-            Thread.sleep(500);
+            Waits.pause(500);
         }
         Assert.assertNotNull(found, "Downloaded PDF file not found in: " + downloadDir);
         System.out.println("DEBUG: Downloaded file: " + found.toAbsolutePath());
 
         // 9) Click Continue Shopping (robust)
-        WebElement continueBtn = null;
-        By[] continueLocators = new By[] {
+        LocatorChain continueLocators = LocatorChain.of("confirmation", "continueShopping",
             By.xpath("//button[contains(translate(normalize-space(.),'abcdefghijklmnopqrstuvwxyz','ABCDEFGHIJKLMNOPQRSTUVWXYZ'),'CONTINUE SHOPPING')]"),
             By.xpath("//button[contains(normalize-space(.),'Continue Shopping')]"),
             By.cssSelector("button.button--tertiary, button.optimizedCheckout-buttonSecondary, .continueButtonContainer button"),
             By.cssSelector("a.continue, .continue, .btn-continue")
-        };
-        for (By loc : continueLocators) {
-            try {
-                if (driver.findElements(loc).size() > 0) { continueBtn = driver.findElement(loc); break; }
-            } catch (Exception ignored) {}
-        }
+        );
+        WebElement continueBtn = Waits.tryUntil(driver, Duration.ofSeconds(10), "continue shopping button", d -> continueLocators.find(d));
         Assert.assertNotNull(continueBtn, "Continue Shopping button not found.");
         try { wait.until(ExpectedConditions.elementToBeClickable(continueBtn)).click(); }
         catch (Exception e) { ((JavascriptExecutor) driver).executeScript("arguments[0].click();", continueBtn); }
@@ -190,36 +186,28 @@ public class ConfirmationFlowTest {
         }
 
         // wait a short moment so UI settles
-        Thread.sleep(400);
+        Waits.pause(400);
 
         // === Continue with logout ===
 
         // 11) Logout
-        WebElement logoutEl = null;
-        By[] logoutSelectors = new By[] {
+        // the text XPath also matches <html>/<body>, so the id is declared first
+        LocatorChain logoutSelectors = LocatorChain.of("header", "logout",
+            By.id("logout"),
             By.xpath("//*[contains(normalize-space(.),'Logout') or contains(normalize-space(.),'logout')]"),
             By.cssSelector("nav .logout-link, .logout-link, a.logout, a[href*='logout']")
-        };
-        for (By sel : logoutSelectors) {
-            try {
-                List<WebElement> els = driver.findElements(sel);
-                if (!els.isEmpty()) {
-                    for (WebElement e : els) { if (e.isDisplayed()) { logoutEl = e; break; } }
-                    if (logoutEl != null) break;
-                }
-            } catch (Exception ignored) {}
-        }
+        );
+        WebElement logoutEl = logoutSelectors.find(driver, driver, WebElement::isDisplayed);
         if (logoutEl == null) {
             By[] userMenuLocators = new By[] { By.cssSelector(".username, .user-menu, nav .user, .UserNav_root") };
             for (By um : userMenuLocators) {
                 try {
-                    if (driver.findElements(um).size() > 0) {
-                        WebElement menu = driver.findElement(um);
+                    List<WebElement> menus = Waits.findAll(driver, um);
+                    if (!menus.isEmpty()) {
+                        WebElement menu = menus.get(0);
                         try { menu.click(); } catch (Exception e) { ((JavascriptExecutor) driver).executeScript("arguments[0].click();", menu); }
-                        Thread.sleep(300);
-                        for (By sel : logoutSelectors) {
-                            if (driver.findElements(sel).size() > 0) { logoutEl = driver.findElement(sel); break; }
-                        }
+                        Waits.pause(300);
+                        logoutEl = logoutSelectors.find(driver);
                     }
                 } catch (Exception ignored) {}
                 if (logoutEl != null) break;
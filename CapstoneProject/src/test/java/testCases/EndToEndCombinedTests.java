@@ -21,7 +21,6 @@ import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
@@ -30,16 +29,20 @@ import org.testng.annotations.Test;
 
 import com.fasterxml.jackson.databind.exc.InvalidFormatException;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
+import pages.CartFixture;
 import pages.CartPage;
+import pages.CartSnapshot;
 import pages.CheckoutPage;
 import pages.HomePage;
 import pages.LoginPage;
 import pages.ProductPage;
 import pages.SearchPage;
 import utils.ConfigReader;
+import utils.DriverBinaries;
 import utils.DriverFactory;
+import utils.LocatorChain;
 import utils.ReportUtils;
+import utils.Waits;
 
 public class EndToEndCombinedTests {
 
@@ -55,6 +58,7 @@ public class EndToEndCombinedTests {
 
         WebDriver driver = null;
         try {
+            DriverBinaries.resolve(browser);
             if (browser.equalsIgnoreCase("chrome")) {
                 driver = new ChromeDriver();
             } else if (browser.equalsIgnoreCase("firefox")) {
@@ -66,7 +70,7 @@ public class EndToEndCombinedTests {
             }
 
             driver.manage().window().maximize();
-            driver.get("https://bstackdemo.com/");
+            driver.get(ConfigReader.getProperty("url"));
             String title = driver.getTitle();
 
             Assert.assertTrue(title.contains("StackDemo"), "Homepage did not load correctly!");
@@ -90,7 +94,7 @@ public class EndToEndCombinedTests {
     public void validLoginTest() {
         WebDriver driver = DriverFactory.initDriver("chrome");
         try {
-            driver.get("https://bstackdemo.com/");
+            driver.get(ConfigReader.getProperty("url"));
             driver.manage().window().maximize();
 
             LoginPage loginPage = new LoginPage(driver);
@@ -117,12 +121,12 @@ public class EndToEndCombinedTests {
     public void testFilterAndSort(String vendor, String sortOrder) {
         // mirror original FilterTests setup
         ConfigReader.loadConfig("testdata/config.properties");
-        WebDriverManager.chromedriver().setup();
+        DriverBinaries.resolve("chrome");
         ChromeOptions opts = new ChromeOptions();
         WebDriver driver = new ChromeDriver(opts);
 
         try {
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+            Waits.applyImplicitWait(driver, 10);
             driver.manage().window().maximize();
             driver.get(ConfigReader.getProperty("url"));
 
@@ -130,8 +134,7 @@ public class EndToEndCombinedTests {
             SearchPage searchPage = new SearchPage(driver);
 
             // wait until search box clickable (same as original)
-            new WebDriverWait(driver, Duration.ofSeconds(30))
-                .until(ExpectedConditions.elementToBeClickable(homePage.getSearchBox()));
+            Waits.until(driver, Duration.ofSeconds(30), "search box clickable", ExpectedConditions.elementToBeClickable(homePage.getSearchBox()));
 
             // refresh, apply vendor filter and sort
             driver.navigate().refresh();
@@ -148,8 +151,6 @@ public class EndToEndCombinedTests {
  // add these imports if they are not already present at the top of EndToEndCombinedTests.java:
  // import org.openqa.selenium.By;
  // import org.openqa.selenium.support.ui.ExpectedConditions;
- // import org.openqa.selenium.support.ui.WebDriverWait;
- // import java.time.Duration;
  // import pages.ProductPage;
  // import pages.CartPage;
  // import utils.DriverFactory;
@@ -158,13 +159,12 @@ public class EndToEndCombinedTests {
  public void addFirstProductToCartTest() throws InterruptedException {
      WebDriver driver = DriverFactory.initDriver("chrome");
      try {
-         driver.get("https://bstackdemo.com/");
+         driver.get(ConfigReader.getProperty("url"));
          driver.manage().window().maximize();
 
          // wait for product container to be present (gives page time to render products)
          try {
-             new WebDriverWait(driver, Duration.ofSeconds(10))
-                 .until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
+             Waits.until(driver, Duration.ofSeconds(10), "products loaded", ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
          } catch (Exception e) {
              System.err.println("DEBUG: products not loaded after 10s. Title: " + driver.getTitle());
              System.err.println("DEBUG: Current URL: " + driver.getCurrentUrl());
@@ -178,8 +178,7 @@ public class EndToEndCombinedTests {
          productPage.addFirstProductToCart();
 
          // wait for cart items to appear
-         new WebDriverWait(driver, Duration.ofSeconds(5))
-             .until(ExpectedConditions.numberOfElementsToBeMoreThan(By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
+         Waits.until(driver, Duration.ofSeconds(5), "cart has items", ExpectedConditions.numberOfElementsToBeMoreThan(By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
 
          System.out.println("Cart items: " + cartPage.getCartItemNames());
          Assert.assertTrue(cartPage.isCartOpen(), "Cart did not open or no items present.");
@@ -192,7 +191,7 @@ public class EndToEndCombinedTests {
  public void addNamedProductToCartTest() throws InterruptedException {
      WebDriver driver = DriverFactory.initDriver("chrome");
      try {
-         driver.get("https://bstackdemo.com/");
+         driver.get(ConfigReader.getProperty("url"));
          driver.manage().window().maximize();
 
          ProductPage productPage = new ProductPage(driver);
@@ -202,8 +201,7 @@ public class EndToEndCombinedTests {
          boolean added = productPage.addProductToCartByName(pname);
 
          // wait for cart items to appear
-         new WebDriverWait(driver, Duration.ofSeconds(5))
-             .until(ExpectedConditions.numberOfElementsToBeMoreThan(By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
+         Waits.until(driver, Duration.ofSeconds(5), "cart has items", ExpectedConditions.numberOfElementsToBeMoreThan(By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
 
          System.out.println("Cart items: " + cartPage.getCartItemNames());
          Assert.assertTrue(added, "Product with name containing '" + pname + "' was not found/added.");
@@ -222,7 +220,7 @@ public class EndToEndCombinedTests {
 public void increaseQuantityAndVerifySubtotal() throws InterruptedException {
   WebDriver driver = DriverFactory.initDriver("chrome");
   try {
-      driver.get("https://bstackdemo.com/");
+      driver.get(ConfigReader.getProperty("url"));
       driver.manage().window().maximize();
 
       ProductPage productPage = new ProductPage(driver);
@@ -236,8 +234,8 @@ public void increaseQuantityAndVerifySubtotal() throws InterruptedException {
 
       // ensure cart visible (try opening cart if needed)
       try {
-          if (driver.findElements(By.cssSelector("div.float-cart")).size() == 0) {
-              if (driver.findElements(By.cssSelector("div.float-cart__header")).size() > 0)
+          if (Waits.isAbsent(driver, By.cssSelector("div.float-cart"))) {
+              if (Waits.isPresent(driver, By.cssSelector("div.float-cart__header")))
                   driver.findElement(By.cssSelector("div.float-cart__header")).click();
           }
       } catch (Exception ignored) {}
@@ -269,7 +267,7 @@ public void increaseQuantityAndVerifySubtotal() throws InterruptedException {
 public void removeItemFromCartTest() throws InterruptedException {
   WebDriver driver = DriverFactory.initDriver("chrome");
   try {
-      driver.get("https://bstackdemo.com/");
+      driver.get(ConfigReader.getProperty("url"));
       driver.manage().window().maximize();
 
       ProductPage productPage = new ProductPage(driver);
@@ -281,15 +279,14 @@ public void removeItemFromCartTest() throws InterruptedException {
 
       // ensure cart visible
       try {
-          if (driver.findElements(By.cssSelector("div.float-cart")).size() == 0) {
-              if (driver.findElements(By.cssSelector("div.float-cart__header")).size() > 0)
+          if (Waits.isAbsent(driver, By.cssSelector("div.float-cart"))) {
+              if (Waits.isPresent(driver, By.cssSelector("div.float-cart__header")))
                   driver.findElement(By.cssSelector("div.float-cart__header")).click();
           }
       } catch (Exception ignored) {}
 
       // wait a moment for cart items
-      new WebDriverWait(driver, Duration.ofSeconds(8))
-          .until(d -> d.findElements(By.cssSelector("div.float-cart .shelf-item")).size() > 0);
+      Waits.until(driver, Duration.ofSeconds(8), "cart has items", d -> d.findElements(By.cssSelector("div.float-cart .shelf-item")).size() > 0);
 
       Assert.assertTrue(cartPage.isItemPresent(productName), "Item not present before removal");
 
@@ -306,7 +303,7 @@ public void removeItemFromCartTest() throws InterruptedException {
 public void addSecondItemToCartTest() throws InterruptedException {
   WebDriver driver = DriverFactory.initDriver("chrome");
   try {
-      driver.get("https://bstackdemo.com/");
+      driver.get(ConfigReader.getProperty("url"));
       driver.manage().window().maximize();
 
       ProductPage productPage = new ProductPage(driver);
@@ -321,8 +318,9 @@ public void addSecondItemToCartTest() throws InterruptedException {
 
       // Ensure cart is visible
       try {
-          if (driver.findElements(By.cssSelector("div.float-cart")).isEmpty()) {
-              driver.findElement(By.cssSelector("div.float-cart__header")).click();
+          if (Waits.isAbsent(driver, By.cssSelector("div.float-cart"))) {
+              List<WebElement> header = Waits.findAll(driver, By.cssSelector("div.float-cart__header"));
+              if (!header.isEmpty()) header.get(0).click();
           }
       } catch (Exception ignored) {}
 
@@ -333,8 +331,7 @@ public void addSecondItemToCartTest() throws InterruptedException {
       Assert.assertTrue(added2, "Second product not added: " + second);
 
       // Wait for cart update
-      new WebDriverWait(driver, Duration.ofSeconds(8))
-              .until(d -> cartPage.isItemPresent(second));
+      Waits.until(driver, Duration.ofSeconds(8), "second item in cart", d -> cartPage.isItemPresent(second));
 
       // Final assertions: both items present
       Assert.assertTrue(cartPage.isItemPresent(first), "First item missing after adding second");
@@ -352,27 +349,21 @@ public void checkoutShippingAndSubmitTest() throws InterruptedException {
  WebDriver driver = DriverFactory.initDriver("chrome");
  try {
      // ensure we are on the application home page first
-     driver.get("https://bstackdemo.com/");
+     driver.get(ConfigReader.getProperty("url"));
      driver.manage().window().maximize();
 
      // wait for product list to be present before creating page objects
-     WebDriverWait shortWait = new WebDriverWait(driver, Duration.ofSeconds(10));
-     shortWait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
+     Waits.until(driver, Duration.ofSeconds(10), "products loaded", ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
 
      // create page objects after navigation
-     ProductPage productPage = new ProductPage(driver);
      CheckoutPage checkoutPage = new CheckoutPage(driver);
      LoginPage loginPage = new LoginPage(driver);
 
-     WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+     Waits.Budget wait = Waits.budget(driver, Duration.ofSeconds(10), "checkout flow");
 
      // ensure signed-in: open modal and pick demo user (your LoginPage handles dropdown)
-     loginPage.openLoginForm();
-
-     // choose username/password and click login
-     loginPage.selectUsername("demouser");   // adjust if you prefer another account label
-     loginPage.selectPassword("testingisfun99");
-     loginPage.clickLogin();
+     // restores the session captured by the first UI login of this user in the suite
+     loginPage.loginAs("demouser", "testingisfun99");
 
      // wait for a post-login signal - title change or user menu - adjust selector if your app shows a user element
      try {
@@ -381,18 +372,11 @@ public void checkoutShippingAndSubmitTest() throws InterruptedException {
          System.out.println("DEBUG: Post-login signal not detected within timeout. Current title: " + driver.getTitle());
      }
 
-     // wait a brief moment to ensure page is stable
-     Thread.sleep(500);
-
-     // add first product to cart (ProductPage prints debug count if no products)
-     productPage.addFirstProductToCart();
-
-     // wait for cart items to appear (cart shelf item)
-     try {
-         wait.until(ExpectedConditions.numberOfElementsToBeMoreThan(
-                 By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
-     } catch (Exception e) {
-         System.err.println("DEBUG: Cart did not update after adding product. Page title: " + driver.getTitle());
+     // put the first product straight into the cart (this test is about checkout, not adding);
+     // CartFixture verifies it with a cart snapshot and falls back to the add-to-cart UI
+     CartSnapshot seeded = CartFixture.of("iPhone 12", 1).seed(driver);
+     if (seeded.getItemCount() == 0) {
+         System.err.println("DEBUG: Cart is empty after seeding. Page title: " + driver.getTitle());
          System.err.println("DEBUG: Current URL: " + driver.getCurrentUrl());
          // fail early with helpful message
          Assert.fail("Cart did not update after adding product.");
@@ -405,7 +389,7 @@ public void checkoutShippingAndSubmitTest() throws InterruptedException {
      );
 
      // navigate to checkout page (your existing flow does this)
-     driver.get("https://bstackdemo.com/checkout");
+     driver.get(ConfigReader.getUrl("checkout"));
 
      // wait for checkout form to appear using your CheckoutPage helper
      checkoutPage.waitForForm();
@@ -441,10 +425,10 @@ public void fullCheckoutFlow_login_add_checkout_confirm_download_continue_checkN
     WebDriver driver = DriverFactory.initDriverWithDownload(downloadDir.toAbsolutePath().toString());
     try {
         driver.manage().window().maximize();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(12));
+        Waits.Budget wait = Waits.budget(driver, Duration.ofSeconds(12), "confirmation flow");
 
         // start at home
-        driver.get("https://bstackdemo.com/");
+        driver.get(ConfigReader.getProperty("url"));
         wait.until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
 
         LoginPage loginPage = new LoginPage(driver);
@@ -453,10 +437,8 @@ public void fullCheckoutFlow_login_add_checkout_confirm_download_continue_checkN
         CheckoutPage checkoutPage = new CheckoutPage(driver);
 
         // 1) Login
-        loginPage.openLoginForm();
-        loginPage.selectUsername("demouser");
-        loginPage.selectPassword("testingisfun99");
-        loginPage.clickLogin();
+        // restores the session captured by the first UI login of this user in the suite
+        loginPage.loginAs("demouser", "testingisfun99");
 
         wait.until(d -> d.findElements(By.xpath("//*[contains(text(),'demouser') or contains(.,'Logout') or contains(.,'logout')]")).size() > 0);
 
@@ -466,10 +448,10 @@ public void fullCheckoutFlow_login_add_checkout_confirm_download_continue_checkN
         Assert.assertTrue(added, "Failed to add product: " + productName);
 
         // 3) Ensure cart open
-        if (driver.findElements(By.cssSelector("div.float-cart")).isEmpty()) {
+        if (Waits.isAbsent(driver, By.cssSelector("div.float-cart"))) {
             String[] toggles = new String[] { "div.float-cart__header", "div.float-cart__toggle, .cart-toggle, .bag, button.float-cart__open", "header .bag" };
             for (String t : toggles) {
-                if (driver.findElements(By.cssSelector(t)).size() > 0) {
+                if (Waits.isPresent(driver, By.cssSelector(t))) {
                     driver.findElement(By.cssSelector(t)).click();
                     break;
                 }
@@ -487,7 +469,7 @@ public void fullCheckoutFlow_login_add_checkout_confirm_download_continue_checkN
                 if (b.isDisplayed() && b.isEnabled()) { b.click(); clicked = true; break; }
             } catch (Exception ignored) {}
         }
-        if (!clicked) driver.get("https://bstackdemo.com/checkout");
+        if (!clicked) driver.get(ConfigReader.getUrl("checkout"));
 
         // 5) Fill shipping
         checkoutPage.waitForForm();
@@ -525,31 +507,26 @@ public void fullCheckoutFlow_login_add_checkout_confirm_download_continue_checkN
                 if (maybe.isPresent()) {
                     found = maybe.get();
                     long size1 = Files.size(found);
-                    Thread.sleep(300);
+                    Waits.pause(300);
                     long size2 = Files.size(found);
                     if (size2 >= size1 && size2 > 0) break;
                 }
             } catch (NoSuchFileException nsf) {
                 // not yet created
             }
-            Thread.sleep(500);
+            Waits.pause(500);
         }
         Assert.assertNotNull(found, "Downloaded PDF file not found in: " + downloadDir);
         System.out.println("DEBUG: Downloaded file: " + found.toAbsolutePath());
 
         // 9) Click Continue Shopping (robust)
-        WebElement continueBtn = null;
-        By[] continueLocators = new By[] {
+        LocatorChain continueLocators = LocatorChain.of("confirmation", "continueShopping",
             By.xpath("//button[contains(translate(normalize-space(.),'abcdefghijklmnopqrstuvwxyz','ABCDEFGHIJKLMNOPQRSTUVWXYZ'),'CONTINUE SHOPPING')]"),
             By.xpath("//button[contains(normalize-space(.),'Continue Shopping')]"),
             By.cssSelector("button.button--tertiary, button.optimizedCheckout-buttonSecondary, .continueButtonContainer button"),
             By.cssSelector("a.continue, .continue, .btn-continue")
-        };
-        for (By loc : continueLocators) {
-            try {
-                if (driver.findElements(loc).size() > 0) { continueBtn = driver.findElement(loc); break; }
-            } catch (Exception ignored) {}
-        }
+        );
+        WebElement continueBtn = Waits.tryUntil(driver, Duration.ofSeconds(10), "continue shopping button", d -> continueLocators.find(d));
         Assert.assertNotNull(continueBtn, "Continue Shopping button not found.");
         try { wait.until(ExpectedConditions.elementToBeClickable(continueBtn)).click(); }
         catch (Exception e) { ((JavascriptExecutor) driver).executeScript("arguments[0].click();", continueBtn); }
@@ -593,36 +570,29 @@ public void fullCheckoutFlow_login_add_checkout_confirm_download_continue_checkN
         }
 
         // wait a short moment so UI settles
-        Thread.sleep(400);
+        Waits.pause(400);
 
         // === Continue with logout ===
 
         // 11) Logout
-        WebElement logoutEl = null;
-        By[] logoutSelectors = new By[] {
-            By.xpath("//*[contains(normalize-space(.),'Logout') or contains(normalize-space(.),'logout')]"),
+        // the text XPath also matches <html>/<body>, so it is a last resort and never promoted
+        LocatorChain logoutSelectors = LocatorChain.of("header", "logout",
+            By.id("logout"),
             By.cssSelector("nav .logout-link, .logout-link, a.logout, a[href*='logout']")
-        };
-        for (By sel : logoutSelectors) {
-            try {
-                List<WebElement> els = driver.findElements(sel);
-                if (!els.isEmpty()) {
-                    for (WebElement e : els) { if (e.isDisplayed()) { logoutEl = e; break; } }
-                    if (logoutEl != null) break;
-                }
-            } catch (Exception ignored) {}
-        }
+        ).orElse(
+            By.xpath("//*[contains(normalize-space(.),'Logout') or contains(normalize-space(.),'logout')]")
+        );
+        WebElement logoutEl = logoutSelectors.find(driver, driver, WebElement::isDisplayed);
         if (logoutEl == null) {
             By[] userMenuLocators = new By[] { By.cssSelector(".username, .user-menu, nav .user, .UserNav_root") };
             for (By um : userMenuLocators) {
                 try {
-                    if (driver.findElements(um).size() > 0) {
-                        WebElement menu = driver.findElement(um);
+                    List<WebElement> menus = Waits.findAll(driver, um);
+                    if (!menus.isEmpty()) {
+                        WebElement menu = menus.get(0);
                         try { menu.click(); } catch (Exception e) { ((JavascriptExecutor) driver).executeScript("arguments[0].click();", menu); }
-                        Thread.sleep(300);
-                        for (By sel : logoutSelectors) {
-                            if (driver.findElements(sel).size() > 0) { logoutEl = driver.findElement(sel); break; }
-                        }
+                        Waits.pause(300);
+                        logoutEl = logoutSelectors.find(driver);
                     }
                 } catch (Exception ignored) {}
                 if (logoutEl != null) break;
@@ -1,59 +1,58 @@
 package testCases;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
-import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.*;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.testng.Assert;
+import org.testng.ITestResult;
 import org.testng.annotations.*;
-import pages.HomePage;
 import pages.SearchPage;
+import pages.SearchSessions;
 import utils.ConfigReader;
+import utils.DataRows;
 
-import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
 
 public class FilterTests {
-    WebDriver driver;
-    HomePage homePage;
-    SearchPage searchPage;
+    // one browser per data-provider thread, each filtering its share of the rows
+    private final SearchSessions sessions = new SearchSessions();
 
     @BeforeClass
     public void setUp() {
         ConfigReader.loadConfig("testdata/config.properties");
-        WebDriverManager.chromedriver().setup();
-        driver = new ChromeDriver(new ChromeOptions());
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        driver.manage().window().maximize();
-        driver.get(ConfigReader.getProperty("url"));
-        homePage = new HomePage(driver);
-        searchPage = new SearchPage(driver);
-        new WebDriverWait(driver, Duration.ofSeconds(30))
-                .until(ExpectedConditions.elementToBeClickable(homePage.getSearchBox()));
     }
 
-    @DataProvider(name = "limitedFilterData")
-    public Object[][] limitedFilterData() {
-        return new Object[][] {
+    @DataProvider(name = "limitedFilterData", parallel = true)
+    public Iterator<Object[]> limitedFilterData() {
+        return DataRows.numbered(Arrays.asList(new Object[][] {
             {"Apple", "Lowest to highest"},
             {"Samsung", "Highest to lowest"}
-        };
+        }).iterator());
     }
 
     @Test(dataProvider = "limitedFilterData")
     public void testFilterAndSort(String vendor, String sortOrder) {
-        driver.navigate().refresh();
+        SearchSessions.Session session = sessions.current();
+        SearchPage searchPage = session.getSearchPage();
+        session.getDriver().navigate().refresh();
         searchPage.applyVendorFilter(vendor);
         searchPage.selectSortOrder(sortOrder);
         Assert.assertTrue(searchPage.verifyVendorOnly(vendor), "Vendor check failed: " + vendor);
         Assert.assertTrue(searchPage.verifySortingByControl(sortOrder), "Sort check failed: " + sortOrder);
     }
 
+    @AfterMethod
+    public void takeScreenshotOnFailure(ITestResult result) {
+        SearchSessions.Session session = sessions.existing();
+        if (result.getStatus() == ITestResult.FAILURE && session != null) {
+            try {
+                String vendor = result.getParameters()[0].toString().replaceAll("[^a-zA-Z0-9_\\-]", "_");
+                result.setAttribute(DataRows.SCREENSHOT_ATTRIBUTE, session.getSearchPage()
+                        .captureFailure(session.getDriver(), "FilterFailed_row" + result.getAttribute(DataRows.ROW_ATTRIBUTE) + "_" + vendor));
+            } catch (Exception ignored) {}
+        }
+    }
+
     @AfterClass
     public void tearDown() {
-        if (driver != null) driver.quit();
+        sessions.closeAll();
     }
 }
-
-
-
@@ -4,6 +4,7 @@ import org.testng.Assert;
 import org.testng.annotations.*;
 import org.openqa.selenium.WebDriver;
 import pages.LoginPage;
+import utils.ConfigReader;
 import utils.DriverFactory;
 
 public class LoginTests {
@@ -13,7 +14,7 @@ public class LoginTests {
     @BeforeMethod
     public void setup() {
         driver = DriverFactory.initDriver("chrome");
-        driver.get("https://bstackdemo.com/");   
+        driver.get(ConfigReader.getProperty("url"));   
         driver.manage().window().maximize();
         loginPage = new LoginPage(driver);
     }
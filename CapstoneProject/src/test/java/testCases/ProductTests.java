@@ -5,13 +5,14 @@ import org.testng.Assert;
 import org.testng.annotations.*;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.By;
-import org.openqa.selenium.support.ui.WebDriverWait;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import java.time.Duration;
 
 import pages.ProductPage;
 import pages.CartPage;
+import utils.ConfigReader;
 import utils.DriverFactory;
+import utils.Waits;
 
 public class ProductTests {
     WebDriver driver;
@@ -23,13 +24,12 @@ public class ProductTests {
         driver = DriverFactory.initDriver("chrome");
 
         // NAVIGATE to the app under test — change to your real URL if different
-        driver.get("https://bstackdemo.com/");
+        driver.get(ConfigReader.getProperty("url"));
         driver.manage().window().maximize();
 
         // wait for product container to be present (gives page time to render products)
         try {
-            new WebDriverWait(driver, Duration.ofSeconds(10))
-                .until(ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
+            Waits.until(driver, Duration.ofSeconds(10), "products loaded", ExpectedConditions.presenceOfElementLocated(By.cssSelector("div.shelf-item")));
         } catch (Exception e) {
             System.err.println("DEBUG: products not loaded after 10s. Title: " + driver.getTitle());
             System.err.println("DEBUG: Current URL: " + driver.getCurrentUrl());
@@ -46,8 +46,7 @@ public class ProductTests {
         productPage.addFirstProductToCart();
 
         // wait for cart items to appear
-        new WebDriverWait(driver, Duration.ofSeconds(5))
-            .until(ExpectedConditions.numberOfElementsToBeMoreThan(By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
+        Waits.until(driver, Duration.ofSeconds(5), "cart has items", ExpectedConditions.numberOfElementsToBeMoreThan(By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
 
         System.out.println("Cart items: " + cartPage.getCartItemNames());
         Assert.assertTrue(cartPage.isCartOpen(), "Cart did not open or no items present.");
@@ -59,8 +58,7 @@ public class ProductTests {
         boolean added = productPage.addProductToCartByName(pname);
 
         // wait for cart items to appear
-        new WebDriverWait(driver, Duration.ofSeconds(5))
-            .until(ExpectedConditions.numberOfElementsToBeMoreThan(By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
+        Waits.until(driver, Duration.ofSeconds(5), "cart has items", ExpectedConditions.numberOfElementsToBeMoreThan(By.cssSelector("div.float-cart__shelf-container .shelf-item"), 0));
 
         System.out.println("Cart items: " + cartPage.getCartItemNames());
         Assert.assertTrue(added, "Product with name containing '" + pname + "' was not found/added.");
@@ -1,79 +1,66 @@
 package testCases;
 
-import io.github.bonigarcia.wdm.WebDriverManager;
-import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
-import org.openqa.selenium.*;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
 import org.testng.Assert;
 import org.testng.ITestResult;
 import org.testng.annotations.*;
-import pages.HomePage;
 import pages.SearchPage;
+import pages.SearchResults;
+import pages.SearchSessions;
 import utils.ConfigReader;
+import utils.DataRows;
 
-import java.io.File;
-import java.nio.file.*;
-import java.time.Duration;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Iterator;
 
 public class SearchTests {
-    WebDriver driver;
-    HomePage homePage;
-    SearchPage searchPage;
+    // one browser per data-provider thread, each searching its share of the rows
+    private final SearchSessions sessions = new SearchSessions();
 
     @BeforeClass
-    public void setUp() throws Exception {
+    public void setUp() {
         ConfigReader.loadConfig("testdata/config.properties");
-        WebDriverManager.chromedriver().setup();
-        driver = new ChromeDriver(new ChromeOptions());
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-        driver.manage().window().maximize();
-        driver.get(ConfigReader.getProperty("url"));
-        homePage = new HomePage(driver);
-        searchPage = new SearchPage(driver);
-        Files.createDirectories(Paths.get("screenshots"));
     }
 
-    @DataProvider(name = "searchData")
-    public Object[][] getSearchData() throws InvalidFormatException {
-        ConfigReader.setExcelFile("testdata/Search.xlsx", "Search");
-        int rows = ConfigReader.getRowCount();
-        Object[][] data = new Object[rows][1];
-        for (int i = 0; i < rows; i++) data[i][0] = ConfigReader.getCellData(i + 1, 0);
-        return data;
+    // rows are streamed from the sheet as TestNG asks for them (product name in column A) and run in parallel
+    @DataProvider(name = "searchData", parallel = true)
+    public Iterator<Object[]> getSearchData() {
+        return DataRows.numbered(ConfigReader.getExcelRows("testdata/Search.xlsx", "Search", 0));
     }
 
     @Test(dataProvider = "searchData")
     public void testProductSearch(String product) {
-        List<String> before = searchPage.getProductTitles().stream().map(WebElement::getText).sorted().collect(Collectors.toList());
+        SearchSessions.Session session = sessions.current();
+        SearchPage searchPage = session.getSearchPage();
+        SearchResults before = searchPage.getResults();
 
-        homePage.enterText(product);
-        homePage.clickSearch();
+        session.getHomePage().enterText(product);
+        session.getHomePage().clickSearch();
 
-        List<String> after = searchPage.getProductTitles().stream().map(WebElement::getText).sorted().collect(Collectors.toList());
-        boolean isDisplayed = after.stream().anyMatch(t -> t.toLowerCase().contains(product.toLowerCase()));
+        SearchResults after = searchPage.waitForResultsChange(before);
+        boolean isDisplayed = after.containsTitle(product);
 
-        Assert.assertTrue(!after.equals(before) && isDisplayed,
+        Assert.assertTrue(!after.getSortedTitles().equals(before.getSortedTitles()) && isDisplayed,
                 "Product list did not update or product '" + product + "' not found.");
     }
 
     @AfterMethod
     public void takeScreenshotOnFailure(ITestResult result) {
-        if (result.getStatus() == ITestResult.FAILURE) {
+        SearchSessions.Session session = sessions.existing();
+        if (result.getStatus() == ITestResult.FAILURE && session != null) {
             try {
                 String product = result.getParameters()[0].toString().replaceAll("[^a-zA-Z0-9_\\-]", "_");
-                File src = ((TakesScreenshot) driver).getScreenshotAs(OutputType.FILE);
-                Path dest = Paths.get("screenshots", "ProductSearchFailed_" + product + ".png");
-                org.openqa.selenium.io.FileHandler.copy(src, dest.toFile());
-                System.out.println("Saved screenshot: " + dest);
+                // bytes are grabbed now, on the row's own browser; the report attaches the file to the row
+                result.setAttribute(DataRows.SCREENSHOT_ATTRIBUTE, session.getSearchPage()
+                        .captureFailure(session.getDriver(), "ProductSearchFailed_row" + result.getAttribute(DataRows.ROW_ATTRIBUTE) + "_" + product)
+                        .thenApply(dest -> {
+                            System.out.println("Saved screenshot: " + dest);
+                            return dest;
+                        }));
             } catch (Exception ignored) {}
         }
     }
 
     @AfterClass
     public void tearDown() {
-        if (driver != null) driver.quit();
+        sessions.closeAll();
     }
-}
\ No newline at end of file
+}
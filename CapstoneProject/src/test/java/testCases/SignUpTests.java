@@ -9,6 +9,7 @@ import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import pages.SignUpPage;
 import utils.DriverFactory;
+import utils.Waits;
 
 public class SignUpTests {
     WebDriver driver;
@@ -23,9 +24,9 @@ public class SignUpTests {
     @Test
     public void validSignupTest() {
         // If signup UI does not exist on the site, skip instead of failing
-        boolean signupPresent = !driver.findElements(By.id("signup-link")).isEmpty()
-                || !driver.findElements(By.id("newUsername")).isEmpty()
-                || !driver.findElements(By.id("signup-btn")).isEmpty();
+        boolean signupPresent = Waits.isPresent(driver, By.id("signup-link"))
+                || Waits.isPresent(driver, By.id("newUsername"))
+                || Waits.isPresent(driver, By.id("signup-btn"));
 
         if (!signupPresent) {
             throw new SkipException("Signup not present on this site — skipping SignUpTests.");
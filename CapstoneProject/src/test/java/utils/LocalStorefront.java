@@ -0,0 +1,162 @@
+package utils;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-JVM stand-in for https://bstackdemo.com/ so the suite can run hermetically on loopback.
+ * Serves the single-page app under src/test/resources/storefront (shelf, floating cart, sign-in dropdowns,
+ * /checkout, /confirmation with the downloadpdf receipt, /orders, /favourites, /offers) plus /api/products.
+ *
+ * Enabled with storefront.local=true; start() rewrites the "url" property to the local base URL,
+ * so everything that reads ConfigReader.getProperty("url") follows automatically.
+ * Lives in the test tree next to its assets, which are only on the test classpath.
+ */
+public class LocalStorefront {
+    private static final String ASSET_ROOT = "storefront/";
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+    private static String baseUrl;
+    private static final Map<String, byte[]> ASSETS = new ConcurrentHashMap<>();
+
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(ConfigReader.getProperty("storefront.local", "false"));
+    }
+
+    /** Start the server (idempotent) and point the "url" property at it. Returns the base URL. */
+    public static synchronized String start() {
+        if (server != null) return baseUrl;
+        try {
+            int port = ConfigReader.getIntProperty("storefront.port", 0);
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+            server.createContext("/", LocalStorefront::handle);
+            executor = Executors.newFixedThreadPool(Math.max(4, DriverFactory.getThreadCount() * 2), r -> {
+                Thread t = new Thread(r, "storefront-http");
+                t.setDaemon(true);
+                return t;
+            });
+            server.setExecutor(executor);
+            server.start();
+        } catch (IOException e) {
+            server = null;
+            throw new RuntimeException("Failed to start local storefront", e);
+        }
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+        ConfigReader.setProperty("url", baseUrl);
+        System.out.println("DEBUG: local storefront serving at " + baseUrl);
+        return baseUrl;
+    }
+
+    public static synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdownNow();
+        server = null;
+        baseUrl = null;
+        ConfigReader.clearOverride("url");
+    }
+
+    public static String getBaseUrl() {
+        return baseUrl;
+    }
+
+    private static void handle(HttpExchange ex) throws IOException {
+        try {
+            String path = ex.getRequestURI().getPath();
+            if (path.equals("/api/products")) {
+                send(ex, 200, "application/json", asset("products.json"), false);
+            } else if (path.startsWith("/static/")) {
+                String name = path.substring("/static/".length());
+                byte[] body = name.contains("..") ? null : asset(name);
+                if (body == null) {
+                    send(ex, 404, "text/plain", "not found".getBytes(StandardCharsets.UTF_8), false);
+                } else {
+                    send(ex, 200, contentType(name), body, true);
+                }
+            } else if (path.equals("/downloads/receipt.pdf")) {
+                ex.getResponseHeaders().set("Content-Disposition", "attachment; filename=\"confirmation.pdf\"");
+                send(ex, 200, "application/pdf", receiptPdf(), false);
+            } else if (path.equals("/favicon.ico")) {
+                send(ex, 204, "image/x-icon", new byte[0], true);
+            } else {
+                // single-page app: every route renders client-side from index.html
+                send(ex, 200, "text/html; charset=utf-8", asset("index.html"), false);
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    private static void send(HttpExchange ex, int status, String type, byte[] body, boolean cacheable) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", type);
+        ex.getResponseHeaders().set("Cache-Control", cacheable ? "public, max-age=3600" : "no-store");
+        boolean empty = body.length == 0 || "HEAD".equals(ex.getRequestMethod());
+        ex.sendResponseHeaders(status, empty ? -1 : body.length);
+        if (!empty) {
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static byte[] asset(String name) {
+        return ASSETS.computeIfAbsent(name, n -> {
+            try (InputStream in = LocalStorefront.class.getClassLoader().getResourceAsStream(ASSET_ROOT + n)) {
+                return in == null ? null : in.readAllBytes();
+            } catch (IOException e) {
+                return null;
+            }
+        });
+    }
+
+    private static String contentType(String name) {
+        if (name.endsWith(".js")) return "application/javascript; charset=utf-8";
+        if (name.endsWith(".css")) return "text/css; charset=utf-8";
+        if (name.endsWith(".svg")) return "image/svg+xml";
+        if (name.endsWith(".json")) return "application/json";
+        return "application/octet-stream";
+    }
+
+    /** Smallest well-formed one-page PDF, enough for the download assertions. */
+    private static byte[] receiptPdf() {
+        String[] objects = {
+            "<< /Type /Catalog /Pages 2 0 R >>",
+            "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+            "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 300 144] /Contents 4 0 R /Resources << /Font << /F1 5 0 R >> >> >>",
+            null,
+            "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica >>"
+        };
+        String text = "BT /F1 14 Tf 24 90 Td (StackDemo order receipt) Tj ET";
+        objects[3] = "<< /Length " + text.length() + " >>\nstream\n" + text + "\nendstream";
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StringBuilder xref = new StringBuilder();
+        write(out, "%PDF-1.4\n");
+        for (int i = 0; i < objects.length; i++) {
+            xref.append(String.format("%010d 00000 n \n", out.size()));
+            write(out, (i + 1) + " 0 obj\n" + objects[i] + "\nendobj\n");
+        }
+        int xrefOffset = out.size();
+        write(out, "xref\n0 " + (objects.length + 1) + "\n0000000000 65535 f \n" + xref
+                + "trailer\n<< /Size " + (objects.length + 1) + " /Root 1 0 R >>\nstartxref\n" + xrefOffset + "\n%%EOF\n");
+        return out.toByteArray();
+    }
+
+    private static void write(ByteArrayOutputStream out, String s) {
+        byte[] b = s.getBytes(StandardCharsets.US_ASCII);
+        out.write(b, 0, b.length);
+    }
+}
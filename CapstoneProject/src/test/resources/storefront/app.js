@@ -0,0 +1,464 @@
+/*
+ * Local stand-in for https://bstackdemo.com/ served by utils.LocalStorefront.
+ * Mirrors the DOM the page objects rely on (shelf items, vendor filters, sort, floating cart,
+ * react-select sign-in dropdowns, checkout form, confirmation + receipt download, orders/favourites/offers).
+ * Cart lives in localStorage "cartProducts", the signed-in user in sessionStorage "username".
+ */
+(function () {
+    'use strict';
+
+    var USERS = ['demouser', 'image_not_loading_user', 'existing_orders_user', 'fav_user', 'locked_user'];
+    var PASSWORDS = ['testingisfun99'];
+    var VENDORS = ['Apple', 'Samsung', 'Google', 'OnePlus'];
+
+    var root = document.getElementById('__next');
+    var products = [];
+    var filters = { vendors: [], sort: '', term: '' };
+    var login = { username: null, password: null, next: null };
+
+    // ---------- storage ----------
+    function readJson(store, key, fallback) {
+        try {
+            var raw = store.getItem(key);
+            return raw ? JSON.parse(raw) : fallback;
+        } catch (e) {
+            return fallback;
+        }
+    }
+    function getCart() { return readJson(localStorage, 'cartProducts', []); }
+    function saveCart(cart) {
+        localStorage.setItem('cartProducts', JSON.stringify(cart));
+        var total = cart.reduce(function (s, p) { return s + p.price * p.quantity; }, 0);
+        var count = cart.reduce(function (s, p) { return s + p.quantity; }, 0);
+        localStorage.setItem('cartTotal', JSON.stringify({ productQuantity: count, totalPrice: total, currencyFormat: '$' }));
+    }
+    function currentUser() { return sessionStorage.getItem('username'); }
+
+    // ---------- helpers ----------
+    function esc(s) {
+        return String(s).replace(/[&<>"']/g, function (c) {
+            return { '&': '&amp;', '<': '&lt;', '>': '&gt;', '"': '&quot;', "'": '&#39;' }[c];
+        });
+    }
+    function money(n) { return '$ ' + Number(n).toFixed(2); }
+    function vendorOf(p) { return (p.availableSizes && p.availableSizes[0]) || ''; }
+    function navigate(path) {
+        history.pushState({}, '', path);
+        render();
+    }
+
+    // ---------- header ----------
+    function headerHtml() {
+        var user = currentUser();
+        var right = user
+            ? '<span class="username">' + esc(user) + '</span><a id="logout">Logout</a>'
+            : '<a id="signin" href="/signin">Sign In</a>';
+        return '<header><a class="Navbar_logo" href="/">StackDemo</a><nav>'
+            + '<a id="offers" href="/offers">Offers</a>'
+            + '<a id="orders" href="/orders">Orders</a>'
+            + '<a id="favourites" href="/favourites">Favourites</a>'
+            + right + '</nav></header>';
+    }
+
+    // ---------- home / shelf ----------
+    function homeHtml() {
+        var vendorBoxes = VENDORS.map(function (v) {
+            var checked = filters.vendors.indexOf(v) >= 0 ? ' checked' : '';
+            return '<label><input type="checkbox" value="' + v + '"' + checked + '><span class="checkmark">' + v + '</span></label>';
+        }).join('');
+        var sortOpts = [['', 'Select'], ['lowestprice', 'Lowest to highest'], ['highestprice', 'Highest to lowest']].map(function (o) {
+            return '<option value="' + o[0] + '"' + (filters.sort === o[0] ? ' selected' : '') + '>' + o[1] + '</option>';
+        }).join('');
+        return '<main><div class="filters"><h4 class="title">Vendors:</h4><div class="filters-available-size">' + vendorBoxes + '</div></div>'
+            + '<div class="shelf-container"><div class="shelf-container-header">'
+            + '<small class="products-found"><span></span></small>'
+            + '<div class="search"><input type="text" placeholder="Search" value="' + esc(filters.term) + '"><button type="button" class="search-btn">Search</button></div>'
+            + '<div class="sort">Order by <select>' + sortOpts + '</select></div>'
+            + '</div><div class="shelf"></div></div></main>';
+    }
+
+    function visibleProducts() {
+        var term = filters.term.trim().toLowerCase();
+        var list = products.filter(function (p) {
+            if (filters.vendors.length && filters.vendors.indexOf(vendorOf(p)) < 0) return false;
+            return !term || p.title.toLowerCase().indexOf(term) >= 0;
+        });
+        if (filters.sort === 'lowestprice') list.sort(function (a, b) { return a.price - b.price; });
+        if (filters.sort === 'highestprice') list.sort(function (a, b) { return b.price - a.price; });
+        return list;
+    }
+
+    function renderShelf() {
+        var shelf = root.querySelector('.shelf');
+        if (!shelf) return;
+        var list = visibleProducts();
+        shelf.innerHTML = list.map(function (p) {
+            var whole = Math.floor(p.price);
+            return '<div class="shelf-item" id="' + p.id + '" data-sku="' + esc(p.sku) + '">'
+                + '<div class="shelf-stopper">Free shipping</div>'
+                + '<div class="shelf-item__thumb"><img src="/static/thumb.svg" alt="' + esc(p.title) + '"></div>'
+                + '<p class="shelf-item__title">' + esc(p.title) + '</p>'
+                + '<div class="shelf-item__price"><div class="val"><small>$</small><b>' + whole + '</b><span>.00</span></div>'
+                + '<div class="installment"><span>or ' + p.installments + ' x</span><b> $' + (p.price / p.installments).toFixed(2) + '</b></div></div>'
+                + '<div class="shelf-item__buy-btn">Add to cart</div></div>';
+        }).join('');
+        var found = root.querySelector('.products-found span');
+        if (found) found.textContent = list.length + ' Product(s) found.';
+    }
+
+    // ---------- floating cart ----------
+    function ensureFloatCart() {
+        var cart = document.querySelector('div.float-cart');
+        if (cart) return cart;
+        cart = document.createElement('div');
+        cart.className = 'float-cart';
+        cart.innerHTML = '<span class="bag bag--float-cart-closed"><span class="bag__quantity">0</span></span>'
+            + '<div class="float-cart__close-btn">X</div>'
+            + '<div class="float-cart__content">'
+            + '<div class="float-cart__header"><span class="bag"><span class="bag__quantity">0</span></span><span class="header-title">Bag</span></div>'
+            + '<div class="float-cart__shelf-container"></div>'
+            + '<div class="float-cart__footer"><div class="sub">SUBTOTAL</div>'
+            + '<div class="sub-price"><p class="sub-price__val">$ 0.00</p><small class="sub-price__installment"></small></div>'
+            + '<div class="buy-btn">Checkout</div></div></div>';
+        document.body.appendChild(cart);
+        return cart;
+    }
+
+    // keyed, in-place update so WebElement references held by tests stay valid across changes
+    function renderCart() {
+        var floatCart = ensureFloatCart();
+        var items = getCart();
+        var container = floatCart.querySelector('.float-cart__shelf-container');
+        var seen = {};
+        items.forEach(function (p) {
+            seen[p.id] = true;
+            var node = container.querySelector('.shelf-item[data-id="' + p.id + '"]');
+            if (!node) {
+                node = document.createElement('div');
+                node.className = 'shelf-item';
+                node.setAttribute('data-id', p.id);
+                node.innerHTML = '<div class="shelf-item__del"></div>'
+                    + '<div class="shelf-item__thumb"><img src="/static/thumb.svg" alt="' + esc(p.title) + '"></div>'
+                    + '<div class="shelf-item__details"><p class="title">' + esc(p.title) + '</p>'
+                    + '<p class="desc">' + esc(vendorOf(p)) + ' | ' + esc(p.title) + '<br>Quantity: <span class="qty"></span></p></div>'
+                    + '<div class="shelf-item__price"><p></p><div>'
+                    + '<button class="change-product-button">-</button><button class="change-product-button">+</button></div></div>';
+                container.appendChild(node);
+            }
+            node.querySelector('.qty').textContent = p.quantity;
+            node.querySelector('.shelf-item__price > p').textContent = money(p.price);
+            node.querySelector('.change-product-button').disabled = p.quantity <= 1;
+        });
+        Array.prototype.slice.call(container.querySelectorAll('.shelf-item')).forEach(function (node) {
+            if (!seen[node.getAttribute('data-id')]) container.removeChild(node);
+        });
+        var count = items.reduce(function (s, p) { return s + p.quantity; }, 0);
+        var total = items.reduce(function (s, p) { return s + p.price * p.quantity; }, 0);
+        Array.prototype.forEach.call(floatCart.querySelectorAll('.bag__quantity'), function (q) { q.textContent = count; });
+        floatCart.querySelector('.sub-price__val').textContent = money(total);
+        floatCart.querySelector('.sub-price__installment').textContent = total ? 'OR UP TO 9 x ' + money(total / 9) : '';
+    }
+
+    function openCart(open) {
+        ensureFloatCart().classList.toggle('float-cart--open', open);
+    }
+
+    function addToCart(id) {
+        var product = products.filter(function (p) { return String(p.id) === String(id); })[0];
+        if (!product) return;
+        var cart = getCart();
+        var existing = cart.filter(function (p) { return p.id === product.id; })[0];
+        if (existing) {
+            existing.quantity += 1;
+        } else {
+            var copy = JSON.parse(JSON.stringify(product));
+            copy.quantity = 1;
+            cart.push(copy);
+        }
+        saveCart(cart);
+        renderCart();
+        openCart(true);
+    }
+
+    function changeQuantity(id, delta) {
+        var cart = getCart();
+        cart.forEach(function (p) {
+            if (String(p.id) === String(id)) p.quantity = Math.max(1, p.quantity + delta);
+        });
+        saveCart(cart);
+        renderCart();
+    }
+
+    function removeFromCart(id) {
+        saveCart(getCart().filter(function (p) { return String(p.id) !== String(id); }));
+        renderCart();
+    }
+
+    // ---------- sign in (react-select look-alike) ----------
+    function selectHtml(id, inputNo, placeholder, heading, options, value) {
+        var shown = value
+            ? '<div class=" css-1uccc91-singleValue">' + esc(value) + '</div>'
+            : '<div class=" css-1wa3eu0-placeholder">' + placeholder + '</div>';
+        return '<div id="' + id + '" class=" css-2b097c-container" data-input="' + inputNo + '" data-heading="' + esc(heading) + '" data-options="' + esc(JSON.stringify(options)) + '">'
+            + '<div class=" css-yk16xz-control"><div class=" css-1hwfws3">' + shown
+            + '<div class="css-1g6gooi"><div style="display: inline-block;"><input id="react-select-' + inputNo + '-input" autocapitalize="none" autocomplete="off" autocorrect="off" spellcheck="false" tabindex="0" type="text" aria-autocomplete="list" value=""></div></div>'
+            + '</div><div class=" css-1hb7zxy-IndicatorsContainer"><span class=" css-1okebmr-indicatorSeparator"></span><div class=" css-tlfecz-indicatorContainer" aria-hidden="true">&#9662;</div></div></div></div>';
+    }
+
+    function signinHtml() {
+        return '<div class="login_wrapper"><form onsubmit="return false;">'
+            + selectHtml('username', 2, 'Select Username', 'Accepted usernames are', USERS, login.username)
+            + selectHtml('password', 3, 'Select Password', 'Password for all users', PASSWORDS, login.password)
+            + '<h3 class="api-error"></h3>'
+            + '<button id="login-btn" type="submit">Log In</button></form></div>';
+    }
+
+    function openMenu(container, term) {
+        closeMenus(container);
+        var menu = container.querySelector('.css-26l3qy-menu');
+        if (!menu) {
+            menu = document.createElement('div');
+            menu.className = ' css-26l3qy-menu';
+            container.appendChild(menu);
+        }
+        var n = container.getAttribute('data-input');
+        var all = JSON.parse(container.getAttribute('data-options'));
+        var t = (term || '').toLowerCase();
+        var matches = all.filter(function (o) { return o.toLowerCase().indexOf(t) >= 0; });
+        menu.innerHTML = '<div class=" css-11unzgr"><div class=" css-syji7d-Group">'
+            + '<div class=" css-1gl4k7y" id="react-select-' + n + '-group-0-heading">' + esc(container.getAttribute('data-heading')) + '</div><div>'
+            + (matches.length ? matches.map(function (o, i) {
+                return '<div class=" css-yt9ioa-option' + (i === 0 ? ' is-focused' : '') + '" id="react-select-' + n + '-option-0-' + i + '" tabindex="-1">' + esc(o) + '</div>';
+            }).join('') : '<div class=" css-1gl4k7y-NoOptionsMessage">No options</div>')
+            + '</div></div></div>';
+    }
+
+    function closeMenus(except) {
+        Array.prototype.forEach.call(document.querySelectorAll('.css-26l3qy-menu'), function (m) {
+            if (!except || m.parentNode !== except) m.parentNode.removeChild(m);
+        });
+    }
+
+    function chooseOption(container, value) {
+        if (container.id === 'username') login.username = value;
+        if (container.id === 'password') login.password = value;
+        closeMenus();
+        var valueBox = container.querySelector('.css-1hwfws3');
+        var old = valueBox.querySelector('.css-1uccc91-singleValue, .css-1wa3eu0-placeholder');
+        var single = document.createElement('div');
+        single.className = ' css-1uccc91-singleValue';
+        single.textContent = value;
+        valueBox.replaceChild(single, old);
+        container.querySelector('input').value = '';
+    }
+
+    function doLogin() {
+        var error = root.querySelector('.api-error');
+        if (!login.username || !login.password) {
+            error.textContent = !login.username ? 'Invalid Username' : 'Invalid Password';
+            return;
+        }
+        if (login.username === 'locked_user') {
+            error.textContent = 'Your account has been locked.';
+            return;
+        }
+        sessionStorage.setItem('username', login.username);
+        var next = login.next;
+        login = { username: null, password: null, next: null };
+        navigate(next ? '/' + next : '/?signin=true');
+    }
+
+    // ---------- checkout / confirmation / account pages ----------
+    function field(id, label) {
+        return '<div class="form-field"><label for="' + id + '" class="form-label optimizedCheckout-contentPrimary">' + label + '</label>'
+            + '<input id="' + id + '" class="form-input optimizedCheckout-form-input" type="text" value=""></div>';
+    }
+
+    function checkoutHtml() {
+        return '<div id="checkout-app"><div class="checkout-view-content"><form class="checkout-form" onsubmit="return false;">'
+            + '<legend>Shipping Address</legend>'
+            + field('firstNameInput', 'First Name') + field('lastNameInput', 'Last Name')
+            + field('addressLine1Input', 'Address') + field('provinceInput', 'State/Province') + field('postCodeInput', 'Postal Code')
+            + '<button id="checkout-shipping-continue" type="submit" class="button button--primary optimizedCheckout-buttonPrimary">Submit</button>'
+            + '</form></div></div>';
+    }
+
+    function submitShipping() {
+        var ids = ['firstNameInput', 'lastNameInput', 'addressLine1Input', 'provinceInput', 'postCodeInput'];
+        var missing = ids.filter(function (id) { return !document.getElementById(id).value.trim(); });
+        if (missing.length) {
+            missing.forEach(function (id) { document.getElementById(id).classList.add('form-input--error'); });
+            return;
+        }
+        var orders = readJson(localStorage, 'orders', []);
+        orders.push({ id: orders.length + 1, items: getCart(), user: currentUser() });
+        localStorage.setItem('orders', JSON.stringify(orders));
+        sessionStorage.setItem('lastOrder', String(orders.length));
+        navigate('/confirmation');
+    }
+
+    function confirmationHtml() {
+        return '<div id="checkout-app"><div class="checkout-view-content confirmation">'
+            + '<legend id="confirmation-message">Your Order has been successfully placed.</legend>'
+            + '<div class="order-number">Your order number is <strong>' + esc(sessionStorage.getItem('lastOrder') || '1') + '</strong>.</div>'
+            + '<a id="downloadpdf" href="/downloads/receipt.pdf" download="confirmation.pdf">Download order receipt</a>'
+            + '<div class="continueButtonContainer"><button type="button" class="button button--tertiary optimizedCheckout-buttonSecondary">Continue Shopping &raquo;</button></div>'
+            + '</div></div>';
+    }
+
+    function accountHtml(title, body) {
+        return '<main><div class="account-page"><h2>' + title + '</h2>' + body + '</div></main>';
+    }
+
+    function ordersHtml() {
+        var mine = readJson(localStorage, 'orders', []).filter(function (o) { return o.user === currentUser(); });
+        var body = mine.length ? mine.map(function (o) {
+            return '<div class="order">Order #' + o.id + ': ' + o.items.map(function (i) { return esc(i.title) + ' x ' + i.quantity; }).join(', ') + '</div>';
+        }).join('') : '<p>No orders found</p>';
+        return accountHtml('Orders', body);
+    }
+
+    // ---------- router ----------
+    var PROTECTED = { checkout: true, orders: true, favourites: true, offers: true };
+
+    function render() {
+        closeMenus();
+        var page = location.pathname.replace(/^\/+|\/+$/g, '');
+        if (PROTECTED[page] && !currentUser()) {
+            login.next = page;
+            history.replaceState({}, '', '/signin?' + page + '=true');
+            page = 'signin';
+        }
+        var body;
+        switch (page) {
+            case '': body = homeHtml(); break;
+            case 'signin': body = signinHtml(); break;
+            case 'checkout': body = checkoutHtml(); break;
+            case 'confirmation': body = confirmationHtml(); break;
+            case 'orders': body = ordersHtml(); break;
+            case 'favourites': body = accountHtml('Favourites', '<p>No favourites yet</p>'); break;
+            case 'offers': body = accountHtml('Offers', '<p>We\'ve promotional offers in your location.</p>'); break;
+            default: body = accountHtml('404', '<p>This page could not be found.</p>');
+        }
+        root.innerHTML = headerHtml() + body;
+        document.title = 'StackDemo';
+        renderShelf();
+        renderCart();
+    }
+
+    // ---------- events ----------
+    document.addEventListener('click', function (e) {
+        var t = e.target;
+        var link = t.closest('a[href]');
+        if (link && link.id !== 'downloadpdf' && link.getAttribute('href').charAt(0) === '/') {
+            e.preventDefault();
+            navigate(link.getAttribute('href'));
+            return;
+        }
+        if (t.closest('#logout')) {
+            sessionStorage.removeItem('username');
+            navigate('/');
+            return;
+        }
+        var buy = t.closest('.shelf-item__buy-btn');
+        if (buy) { addToCart(buy.closest('.shelf-item').id); return; }
+
+        var cartItem = t.closest('.float-cart .shelf-item');
+        if (t.closest('.shelf-item__del') && cartItem) { removeFromCart(cartItem.getAttribute('data-id')); return; }
+        if (t.closest('.change-product-button') && cartItem) {
+            changeQuantity(cartItem.getAttribute('data-id'), t.textContent.trim() === '+' ? 1 : -1);
+            return;
+        }
+        if (t.closest('.bag--float-cart-closed') || t.closest('.float-cart__header')) { openCart(true); return; }
+        if (t.closest('.float-cart__close-btn')) { openCart(false); return; }
+        if (t.closest('.buy-btn')) {
+            if (!getCart().length) { alert('Add some product in the bag!'); return; }
+            openCart(false);
+            navigate('/checkout');
+            return;
+        }
+        if (t.closest('.search-btn')) {
+            filters.term = root.querySelector('input[placeholder="Search"]').value;
+            renderShelf();
+            return;
+        }
+
+        var option = t.closest('.css-yt9ioa-option');
+        if (option) { chooseOption(option.closest('.css-2b097c-container'), option.textContent); return; }
+        var control = t.closest('.css-yk16xz-control');
+        if (control) {
+            var container = control.closest('.css-2b097c-container');
+            if (container.querySelector('.css-26l3qy-menu')) {
+                closeMenus();
+            } else {
+                openMenu(container, '');
+                container.querySelector('input').focus();
+            }
+            return;
+        }
+        if (t.closest('#login-btn')) { doLogin(); return; }
+        if (t.closest('#checkout-shipping-continue')) { submitShipping(); return; }
+        if (t.closest('.continueButtonContainer button')) {
+            saveCart([]);
+            navigate('/');
+            return;
+        }
+        if (!t.closest('.css-2b097c-container')) closeMenus();
+    });
+
+    document.addEventListener('change', function (e) {
+        var t = e.target;
+        if (t.matches('.filters input[type=checkbox]')) {
+            filters.vendors = Array.prototype.map.call(root.querySelectorAll('.filters input:checked'), function (i) { return i.value; });
+            renderShelf();
+        } else if (t.matches('.sort select')) {
+            filters.sort = t.value;
+            renderShelf();
+        }
+    });
+
+    document.addEventListener('input', function (e) {
+        var container = e.target.closest('.css-2b097c-container');
+        if (container) openMenu(container, e.target.value);
+    });
+
+    document.addEventListener('keydown', function (e) {
+        var container = e.target.closest && e.target.closest('.css-2b097c-container');
+        if (container) {
+            var menu = container.querySelector('.css-26l3qy-menu');
+            var options = menu ? Array.prototype.slice.call(menu.querySelectorAll('.css-yt9ioa-option')) : [];
+            var focused = options.filter(function (o) { return o.classList.contains('is-focused'); })[0];
+            if (e.key === 'Enter' || e.key === 'Tab') {
+                if (focused) {
+                    e.preventDefault();
+                    chooseOption(container, focused.textContent);
+                }
+            } else if (e.key === 'ArrowDown' || e.key === 'ArrowUp') {
+                e.preventDefault();
+                if (!menu) { openMenu(container, ''); return; }
+                var idx = options.indexOf(focused) + (e.key === 'ArrowDown' ? 1 : -1);
+                idx = Math.max(0, Math.min(options.length - 1, idx));
+                options.forEach(function (o, i) { o.classList.toggle('is-focused', i === idx); });
+            } else if (e.key === 'Escape') {
+                closeMenus();
+            }
+            return;
+        }
+        if (e.key === 'Enter' && e.target.matches && e.target.matches('input[placeholder="Search"]')) {
+            filters.term = e.target.value;
+            renderShelf();
+        }
+    });
+
+    window.addEventListener('popstate', render);
+
+    var params = new URLSearchParams(location.search);
+    Object.keys(PROTECTED).forEach(function (key) {
+        if (params.get(key) === 'true') login.next = key;
+    });
+
+    fetch('/api/products').then(function (r) { return r.json(); }).then(function (data) {
+        products = data.products || [];
+        render();
+    });
+})();